@@ -0,0 +1,125 @@
+package com.example.Terminal.benchmark;
+
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.File;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Comandos que percorrem a árvore inteira (tree, find, du) e comandos sobre arquivos grandes (grep),
+// executados pelo caminho completo de executeCommand
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CommandBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int nodes;
+
+    TerminalService service;
+    TerminalSession session;
+
+    @Setup
+    public void setup() {
+        service = TreeFixtures.newService();
+        session = new TerminalSession("benchmark");
+        TreeFixtures.balanced(session.getRoot(), nodes, 16);
+        session.getRoot().addFile(TreeFixtures.newFile("app.log", TreeFixtures.logContent(Math.min(nodes, 100_000))));
+        session.getRoot().addDirectory(new Directory("backup", session.getRoot()));
+        service.executeCommand(session, "snapshot base");
+    }
+
+    // O histórico cresce a cada comando: é limpo para não distorcer as iterações seguintes
+    @Setup(Level.Iteration)
+    public void clearHistory() {
+        session.getCommandHistory().clear();
+    }
+
+    @Benchmark
+    public String parseAndDispatch() {
+        return service.executeCommand(session, "pwd");
+    }
+
+    @Benchmark
+    public String tree() {
+        return service.executeCommand(session, "tree");
+    }
+
+    @Benchmark
+    public String find() {
+        return service.executeCommand(session, "find ~ -name file0000003.log");
+    }
+
+    @Benchmark
+    public String findGlob() {
+        return service.executeCommand(session, "find ~ -name 'file000000*.log'");
+    }
+
+    @Benchmark
+    public String du() {
+        return service.executeCommand(session, "du .");
+    }
+
+    @Benchmark
+    public String grep() {
+        return service.executeCommand(session, "grep ERROR app.log");
+    }
+
+    // O head no fim interrompe a leitura do arquivo: o custo não depende do tamanho do app.log
+    @Benchmark
+    public String pipeGrepHead() {
+        return service.executeCommand(session, "cat app.log | grep ERROR | head 10");
+    }
+
+    @Benchmark
+    public String grepRecursive() {
+        return service.executeCommand(session, "grep -r 'linha 4242' ~");
+    }
+
+    // Compacta o app.log em um único bloco (substitui o log.zip da chamada anterior)
+    @Benchmark
+    public String zipLog() {
+        return service.executeCommand(session, "zip log.zip app.log");
+    }
+
+    // Compacta ~1/16 da árvore; as entradas são comprimidas em paralelo quando o conteúdo é grande
+    @Benchmark
+    public String zipRecursive() {
+        return service.executeCommand(session, "zip -r backup.zip " + TreeFixtures.dirName(1));
+    }
+
+    // Copia ~1/16 da árvore (substitui a cópia da chamada anterior); a cópia é preguiçosa e não depende do tamanho
+    @Benchmark
+    public String copyRecursive() {
+        return service.executeCommand(session, "cp -r " + TreeFixtures.dirName(1) + " backup");
+    }
+
+    // Cópia seguida de uma escrita no original: só o primeiro nível da cópia precisa ser criado
+    @Benchmark
+    public long copyThenAppend() {
+        service.executeCommand(session, "cp -r " + TreeFixtures.dirName(1) + " backup");
+        File file = session.getRoot().findSubdirectory(TreeFixtures.dirName(1)).orElseThrow()
+                .findFile(TreeFixtures.fileName(0) + ".log").orElseThrow();
+        file.setContent("linha");
+        return file.length();
+    }
+
+    // Volta a árvore inteira para o snapshot: não depende da quantidade de nós
+    @Benchmark
+    public String restore() {
+        return service.executeCommand(session, "restore base");
+    }
+
+    // Uma alteração depois do snapshot: a comparação só desce pelo caminho alterado
+    @Benchmark
+    public String snapshotDiff() {
+        session.getRoot().findSubdirectory(TreeFixtures.dirName(1)).orElseThrow()
+                .findFile(TreeFixtures.fileName(0) + ".log").orElseThrow().setContent("alterado");
+        return service.executeCommand(session, "snapshot diff base");
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.Terminal.benchmark;
+
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.FileContent;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import com.example.Terminal.util.TextUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// diff de arquivos grandes com poucas alterações espalhadas (inserções, trocas e remoções), comparado com a
+// comparação antiga linha a linha pelo índice, e diff -r de uma cópia (cp -r) em que só um arquivo mudou
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DiffBenchmark {
+
+    @Param({"10000", "1000000"})
+    int lines;
+
+    @Param({"1", "10", "100"})
+    int changes;
+
+    TerminalService service;
+    TerminalSession session;
+
+    @Setup
+    public void setup() {
+        service = TreeFixtures.newService();
+        session = new TerminalSession("benchmark");
+        String content = TreeFixtures.logContent(lines);
+        List<String> changed = new ArrayList<>(List.of(content.split("\n")));
+        for (int i = 0; i < changes; i++) {
+            int position = (int) ((long) (i + 1) * changed.size() / (changes + 1));
+            switch (i % 3) {
+                case 0 -> changed.add(position, "WARN linha nova " + i);
+                case 1 -> changed.set(position, "WARN linha alterada " + i);
+                default -> changed.remove(position);
+            }
+        }
+        session.getRoot().addFile(TreeFixtures.newFile("a.log", content));
+        session.getRoot().addFile(TreeFixtures.newFile("b.log", String.join("\n", changed)));
+
+        Directory left = new Directory("left", session.getRoot());
+        session.getRoot().addDirectory(left);
+        TreeFixtures.balanced(left, 1000, 16);
+        service.executeCommand(session, "cp -r left right");
+        service.executeCommand(session, "cd right");
+        service.executeCommand(session, "echo 'linha nova' >> " + TreeFixtures.fileName(1) + ".log");
+        service.executeCommand(session, "cd ~");
+    }
+
+    // O histórico cresce a cada comando: é limpo para não distorcer as iterações seguintes
+    @Setup(Level.Iteration)
+    public void clearHistory() {
+        session.getCommandHistory().clear();
+    }
+
+    @Benchmark
+    public String diff() {
+        return service.executeCommand(session, "diff a.log b.log");
+    }
+
+    // Comparação antiga: a linha i de um lado contra a linha i do outro (uma inserção marca o resto do arquivo)
+    @Benchmark
+    public String diffByIndex() {
+        FileContent lines1 = session.getRoot().findFile("a.log").orElseThrow().content();
+        FileContent lines2 = session.getRoot().findFile("b.log").orElseThrow().content();
+        int count1 = lines1.visibleLineCount();
+        int count2 = lines2.visibleLineCount();
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < Math.max(count1, count2); i++) {
+            String line1 = i < count1 ? TextUtils.stripTrailingQuote(lines1.line(i)) : "";
+            String line2 = i < count2 ? TextUtils.stripTrailingQuote(lines2.line(i)) : "";
+            if (!line1.equals(line2)) {
+                result.append("< ").append(line1).append("\n> ").append(line2).append('\n');
+            }
+        }
+        return result.toString();
+    }
+
+    @Benchmark
+    public String diffRecursive() {
+        return service.executeCommand(session, "diff -r left right");
+    }
+}
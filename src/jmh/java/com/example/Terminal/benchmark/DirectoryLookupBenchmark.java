@@ -0,0 +1,47 @@
+package com.example.Terminal.benchmark;
+
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.File;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Busca de filhos por nome em diretórios com diferentes quantidades de entradas
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectoryLookupBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int fanout;
+
+    Directory dir;
+    String existingFile;
+    String existingDir;
+
+    @Setup
+    public void setup() {
+        dir = TreeFixtures.flat(fanout);
+        existingFile = TreeFixtures.fileName(fanout / 2);
+        existingDir = TreeFixtures.dirName(fanout / 2);
+    }
+
+    @Benchmark
+    public Optional<File> findFileHit() {
+        return dir.findFile(existingFile);
+    }
+
+    @Benchmark
+    public Optional<File> findFileMiss() {
+        return dir.findFile("inexistente.txt");
+    }
+
+    @Benchmark
+    public Optional<Directory> findSubdirectoryHit() {
+        return dir.findSubdirectory(existingDir);
+    }
+}
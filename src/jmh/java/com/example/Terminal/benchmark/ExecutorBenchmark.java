@@ -0,0 +1,78 @@
+package com.example.Terminal.benchmark;
+
+import com.example.Terminal.service.CommandExecutor;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Carga de muitas sessões ao mesmo tempo nos dois modos do CommandExecutor. As requisições chegam por um pool
+// fixo de 200 threads (o padrão do Tomcat): no modo platform o comando roda nessa thread; no virtual ela só
+// entrega o comando à fila da sessão e fica livre para a próxima requisição
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ExecutorBenchmark {
+    private static final int REQUEST_THREADS = 200;
+    private static final int COMMANDS = 10_000;
+
+    @Param({"platform", "virtual"})
+    String mode;
+
+    @Param({"100", "10000"})
+    int sessions;
+
+    @Param({"pwd", "tree"})
+    String command;
+
+    TerminalService service;
+    CommandExecutor executor;
+    ExecutorService requestThreads;
+    TerminalSession[] terminals;
+
+    @Setup
+    public void setup() {
+        service = TreeFixtures.newService();
+        executor = new CommandExecutor(mode);
+        requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        terminals = new TerminalSession[sessions];
+        for (int i = 0; i < sessions; i++) {
+            terminals[i] = new TerminalSession("s" + i);
+            TreeFixtures.balanced(terminals[i].getRoot(), 50, 4);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestThreads.shutdownNow();
+        executor.close();
+    }
+
+    // O histórico cresce a cada comando: é limpo para não distorcer as iterações seguintes
+    @Setup(Level.Iteration)
+    public void clearHistory() {
+        for (TerminalSession terminal : terminals) {
+            terminal.getCommandHistory().clear();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMANDS)
+    public void requests() {
+        CompletableFuture<?>[] results = new CompletableFuture<?>[COMMANDS];
+        for (int i = 0; i < COMMANDS; i++) {
+            TerminalSession terminal = terminals[i % sessions];
+            results[i] = CompletableFuture
+                    .supplyAsync(() -> executor.submit(terminal, () -> service.executeCommand(terminal, command)), requestThreads)
+                    .thenCompose(result -> result);
+        }
+        CompletableFuture.allOf(results).join();
+    }
+}
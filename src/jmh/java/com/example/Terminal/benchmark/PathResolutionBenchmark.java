@@ -0,0 +1,41 @@
+package com.example.Terminal.benchmark;
+
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Resolução de caminhos (findDirectoryByPath) em árvores profundas, via cd com caminho absoluto
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathResolutionBenchmark {
+
+    @Param({"4", "64", "512"})
+    int depth;
+
+    TerminalService service;
+    TerminalSession session;
+    String command;
+
+    @Setup
+    public void setup() {
+        service = TreeFixtures.newService();
+        session = new TerminalSession("benchmark");
+        command = "cd " + TreeFixtures.deepPath(session.getRoot(), depth);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearHistory() {
+        session.getCommandHistory().clear();
+    }
+
+    @Benchmark
+    public String cdAbsolute() {
+        return service.executeCommand(session, command);
+    }
+}
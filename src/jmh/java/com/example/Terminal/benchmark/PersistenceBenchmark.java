@@ -0,0 +1,135 @@
+package com.example.Terminal.benchmark;
+
+import com.example.Terminal.command.CommandRegistry;
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.persistence.PersistenceEngine;
+import com.example.Terminal.service.CommandMetrics;
+import com.example.Terminal.service.SessionRegistry;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Custo da persistência: comandos gravados no log com fsync (várias threads compartilham cada fsync pelo group
+// commit) e o tempo de recuperação a partir do snapshot, para uma árvore de 1M de nós e para poucos arquivos
+// grandes (o conteúdo fica no mapeamento e não é lido na recuperação)
+public class PersistenceBenchmark {
+
+    private static Instance start(Path directory, boolean fsync) throws IOException {
+        SessionRegistry sessions = new SessionRegistry(100_000, 60_000);
+        TerminalService service = new TerminalService(new CommandMetrics(new SimpleMeterRegistry(), sessions), new CommandRegistry());
+        PersistenceEngine engine = new PersistenceEngine(service, sessions, directory.toString(), fsync);
+        engine.recover();
+        return new Instance(service, sessions, engine);
+    }
+
+    record Instance(TerminalService service, SessionRegistry sessions, PersistenceEngine engine) {
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Cada thread do benchmark tem a própria sessão; todas gravam no mesmo log
+    @State(Scope.Benchmark)
+    public static class Journal {
+        @Param({"true", "false"})
+        boolean fsync;
+
+        Path directory;
+        Instance instance;
+        final AtomicInteger nextSession = new AtomicInteger();
+
+        @Setup
+        public void setup() throws IOException {
+            directory = Files.createTempDirectory("wal-bench");
+            instance = start(directory, fsync);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            instance.engine().close();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Terminal {
+        TerminalSession session;
+        int counter;
+
+        @Setup
+        public void setup(Journal journal) {
+            session = journal.instance.sessions().restore("s" + journal.nextSession.incrementAndGet());
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    @Threads(16)
+    public String journaledEcho(Journal journal, Terminal terminal) {
+        return journal.instance.service().executeCommand(terminal.session, "echo linha" + (terminal.counter++ & 1023) + " >> log.txt");
+    }
+
+    // Snapshot gravado uma vez (e sem log depois dele): "nodes" tem ~1M de nós vazios, "content" tem 2 mil
+    // arquivos de ~150 KB (~300 MB de conteúdo)
+    @State(Scope.Benchmark)
+    public static class LargeSnapshot {
+        @Param({"nodes", "content"})
+        String shape;
+
+        Path directory;
+
+        @Setup
+        public void setup() throws IOException {
+            directory = Files.createTempDirectory("snapshot-bench");
+            Instance instance = start(directory, false);
+            TerminalSession session = instance.sessions().restore("large");
+            if (shape.equals("nodes")) {
+                TreeFixtures.balanced(session.getRoot(), 1_000_000, 16);
+            } else {
+                String content = TreeFixtures.logContent(4_000);
+                for (int i = 0; i < 2_000; i++) {
+                    Directory dir = session.getRoot().addDirectoryIfAbsent(new Directory(TreeFixtures.dirName(i % 50), session.getRoot()));
+                    dir.addFile(TreeFixtures.newFile(TreeFixtures.fileName(i), content));
+                }
+            }
+            instance.service().executeCommand(session, "touch marcador");
+            instance.engine().snapshot();
+            instance.engine().close();
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+    public SessionRegistry recover(LargeSnapshot snapshot) throws IOException {
+        Instance instance = start(snapshot.directory, false);
+        instance.engine().close();
+        return instance.sessions();
+    }
+}
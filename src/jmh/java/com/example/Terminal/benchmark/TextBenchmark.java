@@ -0,0 +1,85 @@
+package com.example.Terminal.benchmark;
+
+import com.example.Terminal.util.TextUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Compara as implementações antigas (replaceAll/split com regex) com as varreduras do TextUtils.
+// Rode com "-prof gc" para ver a taxa de alocação (gc.alloc.rate.norm) de cada uma.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextBenchmark {
+
+    @Param({"1000", "100000"})
+    int lines;
+
+    String content;
+
+    @Setup
+    public void setup() {
+        content = "\"" + TreeFixtures.logContent(lines) + "\"";
+    }
+
+    @Benchmark
+    public String headLegacy() {
+        List<String> all = Arrays.asList(content.split("\n"));
+        return all.subList(0, Math.min(10, all.size())).stream()
+                .map(line -> line.replaceAll("^\"|\"$", ""))
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Benchmark
+    public String head() {
+        return TextUtils.splitLines(content, 10).stream()
+                .map(TextUtils::stripQuotes)
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Benchmark
+    public String tailLegacy() {
+        List<String> all = Arrays.asList(content.split("\n"));
+        return all.subList(Math.max(0, all.size() - 10), all.size()).stream()
+                .map(line -> line.replaceAll("^\"|\"$", ""))
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Benchmark
+    public String tail() {
+        List<String> all = TextUtils.splitLines(content);
+        return all.subList(Math.max(0, all.size() - 10), all.size()).stream()
+                .map(TextUtils::stripQuotes)
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Benchmark
+    public long wcLegacy() {
+        String withoutQuotes = content.replaceAll("\"", "");
+        return withoutQuotes.lines().count()
+                + Arrays.stream(withoutQuotes.split("\\s+")).filter(w -> !w.isEmpty()).count()
+                + withoutQuotes.length();
+    }
+
+    @Benchmark
+    public long wc() {
+        TextUtils.Counts counts = TextUtils.count(content);
+        return counts.lines() + counts.words() + counts.chars();
+    }
+
+    @Benchmark
+    public int statLegacy() {
+        return content.replaceAll("\"", "").length();
+    }
+
+    @Benchmark
+    public int stat() {
+        return TextUtils.lengthWithout(content, '"');
+    }
+}
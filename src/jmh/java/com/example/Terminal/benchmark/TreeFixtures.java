@@ -0,0 +1,91 @@
+package com.example.Terminal.benchmark;
+
+import com.example.Terminal.command.CommandRegistry;
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.File;
+import com.example.Terminal.service.CommandMetrics;
+import com.example.Terminal.service.SessionRegistry;
+import com.example.Terminal.service.TerminalService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Geração de árvores e conteúdos sintéticos usados pelos benchmarks
+public final class TreeFixtures {
+
+    private TreeFixtures() {
+    }
+
+    public static TerminalService newService() {
+        return new TerminalService(new CommandMetrics(new SimpleMeterRegistry(), new SessionRegistry(1_000, 3_600_000)),
+                new CommandRegistry());
+    }
+
+    // Diretório com "fanout" arquivos e "fanout" subdiretórios (file0000001, dir0000001, ...)
+    public static Directory flat(int fanout) {
+        Directory dir = new Directory("flat", null);
+        for (int i = 0; i < fanout; i++) {
+            dir.addFile(newFile(fileName(i), "conteudo " + i));
+            dir.addDirectory(new Directory(dirName(i), dir));
+        }
+        return dir;
+    }
+
+    // Preenche a árvore em largura: cada diretório recebe "fanout" arquivos e "fanout" subdiretórios
+    // até atingir "nodes" nós no total
+    public static void balanced(Directory root, int nodes, int fanout) {
+        Deque<Directory> pending = new ArrayDeque<>();
+        pending.add(root);
+        int created = 0;
+        while (created < nodes && !pending.isEmpty()) {
+            Directory dir = pending.poll();
+            for (int i = 0; i < fanout && created < nodes; i++, created++) {
+                dir.addFile(newFile(fileName(i) + ".log", "linha " + created));
+            }
+            for (int i = 0; i < fanout && created < nodes; i++, created++) {
+                Directory subdir = new Directory(dirName(i), dir);
+                dir.addDirectory(subdir);
+                pending.add(subdir);
+            }
+        }
+    }
+
+    // Cria uma cadeia d0/d1/.../d{depth-1} e devolve o caminho absoluto até o último diretório
+    public static String deepPath(Directory root, int depth) {
+        StringBuilder path = new StringBuilder("~");
+        Directory current = root;
+        for (int i = 0; i < depth; i++) {
+            Directory next = new Directory("d" + i, current);
+            current.addDirectory(next);
+            current = next;
+            path.append('/').append(next.getName());
+        }
+        return path.toString();
+    }
+
+    // Conteúdo com "lines" linhas, uma a cada cem contendo "ERROR"
+    public static String logContent(int lines) {
+        StringBuilder content = new StringBuilder(lines * 48);
+        for (int i = 0; i < lines; i++) {
+            if (i > 0) content.append('\n');
+            content.append(i % 100 == 0 ? "ERROR " : "INFO ").append("requisicao ").append(i).append(" processada em ")
+                    .append(i % 997).append("ms");
+        }
+        return content.toString();
+    }
+
+    public static File newFile(String name, String content) {
+        File file = new File(name);
+        file.setContent(content);
+        return file;
+    }
+
+    public static String fileName(int i) {
+        return String.format("file%07d", i);
+    }
+
+    public static String dirName(int i) {
+        return String.format("dir%07d", i);
+    }
+}
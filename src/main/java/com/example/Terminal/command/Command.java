@@ -0,0 +1,38 @@
+package com.example.Terminal.command;
+
+import com.example.Terminal.service.TerminalSession;
+
+// Implementação de um comando do terminal: recebe a sessão e a linha já interpretada e devolve a saída
+@FunctionalInterface
+public interface Command {
+    String execute(TerminalSession session, CommandLine line);
+
+    // Execução em streaming: por padrão escreve a saída inteira de uma vez; comandos com saídas grandes sobrescrevem
+    default void execute(TerminalSession session, CommandLine line, OutputSink out) {
+        out.write(execute(session, line));
+    }
+
+    // Comando com as duas formas: "text" devolve a saída inteira e "streaming" a escreve aos poucos
+    static Command of(Command text, StreamingCommand streaming) {
+        return new Command() {
+            @Override
+            public String execute(TerminalSession session, CommandLine line) {
+                return text.execute(session, line);
+            }
+
+            @Override
+            public void execute(TerminalSession session, CommandLine line, OutputSink out) {
+                streaming.execute(session, line, out);
+            }
+        };
+    }
+
+    // Comando escrito só na forma em streaming; a forma texto junta a saída em um StringBuilder
+    static Command of(StreamingCommand streaming) {
+        return of((session, line) -> {
+            StringBuilder output = new StringBuilder();
+            streaming.execute(session, line, output::append);
+            return output.toString();
+        }, streaming);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.Terminal.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Linha de comando já separada em nome, argumentos e redirecionamento (> ou >>), em uma única passada.
+// Aspas simples ou duplas agrupam palavras e protegem espaços e '>'; as aspas em si não fazem parte do argumento.
+public final class CommandLine {
+    private final String raw;
+    private final String name;
+    private final List<String> args;
+    private final boolean redirected;
+    private final String redirectTarget;
+    private final boolean append;
+
+    private CommandLine(String raw, String name, List<String> args, boolean redirected, String redirectTarget,
+                        boolean append) {
+        this.raw = raw;
+        this.name = name;
+        this.args = args;
+        this.redirected = redirected;
+        this.redirectTarget = redirectTarget;
+        this.append = append;
+    }
+
+    public static CommandLine parse(String raw) {
+        List<String> tokens = new ArrayList<>();
+        boolean redirected = false;
+        String redirectTarget = null;
+        boolean append = false;
+        boolean readingTarget = false;
+
+        StringBuilder token = new StringBuilder();
+        boolean inToken = false;
+        char quote = 0;
+        int length = raw.length();
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? raw.charAt(i) : ' ';
+
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else if (i == length) {
+                    break; // Aspas não fechadas: o que foi lido até aqui vira o último argumento
+                } else {
+                    token.append(c);
+                }
+                continue;
+            }
+
+            if (c == '"' || c == '\'') {
+                quote = c;
+                inToken = true;
+            } else if (c == ' ' || c == '\t' || c == '>') {
+                if (inToken) {
+                    if (readingTarget) {
+                        redirectTarget = token.toString();
+                        readingTarget = false;
+                    } else {
+                        tokens.add(token.toString());
+                    }
+                    token.setLength(0);
+                    inToken = false;
+                }
+                if (c == '>') {
+                    append = i + 1 < length && raw.charAt(i + 1) == '>';
+                    if (append) i++;
+                    readingTarget = true;
+                    redirected = true;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) {
+            if (readingTarget) {
+                redirectTarget = token.toString();
+            } else {
+                tokens.add(token.toString());
+            }
+        }
+
+        String name = tokens.isEmpty() ? "" : tokens.get(0);
+        List<String> args = tokens.size() > 1 ? tokens.subList(1, tokens.size()) : Collections.emptyList();
+        return new CommandLine(raw, name, args, redirected, redirectTarget, append);
+    }
+
+    // Texto original digitado pelo usuário
+    public String raw() {
+        return raw;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public List<String> args() {
+        return args;
+    }
+
+    public int argCount() {
+        return args.size();
+    }
+
+    // Argumento na posição informada, ou "" se não existir
+    public String arg(int index) {
+        return index < args.size() ? args.get(index) : "";
+    }
+
+    // true se a linha tem '>' ou '>>' fora de aspas
+    public boolean isRedirected() {
+        return redirected;
+    }
+
+    // Arquivo de destino do redirecionamento, ou null se não houver (ou se faltar o nome depois do '>')
+    public String redirectTarget() {
+        return redirectTarget;
+    }
+
+    // true para ">>" (acrescentar), false para ">" (sobrescrever)
+    public boolean isAppend() {
+        return append;
+    }
+}
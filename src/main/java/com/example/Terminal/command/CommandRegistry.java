@@ -0,0 +1,68 @@
+package com.example.Terminal.command;
+
+import com.example.Terminal.service.TerminalSession;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Tabela de comandos disponíveis (nome -> implementação). Novos comandos são registrados aqui,
+// sem alterar o despacho do TerminalService.
+@Component
+public class CommandRegistry {
+    private final Map<String, Command> commands = new ConcurrentHashMap<>();
+    // Comandos que sabem ler as linhas do comando anterior em um pipe; os demais ignoram a entrada
+    private final Map<String, PipeStage> stages = new ConcurrentHashMap<>();
+
+    public void register(String name, Command command) {
+        commands.put(name, command);
+    }
+
+    // Registra um comando que exige ao menos "minArgs" argumentos; com menos, devolve a mensagem de uso (status 2)
+    public void register(String name, int minArgs, String usage, Command command) {
+        register(name, Command.of(
+                (session, line) -> line.argCount() < minArgs ? usage(session, usage) : command.execute(session, line),
+                (session, line, out) -> {
+                    if (line.argCount() < minArgs) {
+                        out.write(usage(session, usage));
+                    } else {
+                        command.execute(session, line, out);
+                    }
+                }));
+    }
+
+    private static String usage(TerminalSession session, String usage) {
+        session.setExitStatus(2);
+        return usage;
+    }
+
+    public void register(String name, StreamingCommand command) {
+        register(name, Command.of(command));
+    }
+
+    public void register(String name, int minArgs, String usage, StreamingCommand command) {
+        register(name, minArgs, usage, Command.of(command));
+    }
+
+    public void registerStage(String name, PipeStage stage) {
+        stages.put(name, stage);
+    }
+
+    public Optional<PipeStage> findStage(String name) {
+        return Optional.ofNullable(stages.get(name));
+    }
+
+    public Optional<Command> find(String name) {
+        return Optional.ofNullable(commands.get(name));
+    }
+
+    public boolean contains(String name) {
+        return commands.containsKey(name);
+    }
+
+    public Set<String> names() {
+        return commands.keySet();
+    }
+}
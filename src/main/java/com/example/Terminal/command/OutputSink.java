@@ -0,0 +1,38 @@
+package com.example.Terminal.command;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+// Destino da saída de um comando em streaming: os comandos escrevem aos poucos em vez de montar uma String inteira
+@FunctionalInterface
+public interface OutputSink {
+    void write(CharSequence text);
+
+    default void write(char c) {
+        write(String.valueOf(c));
+    }
+
+    // Escreve no Writer (ex.: a resposta HTTP); erros de I/O viram UncheckedIOException e interrompem o comando
+    static OutputSink of(Writer writer) {
+        return new OutputSink() {
+            @Override
+            public void write(CharSequence text) {
+                try {
+                    writer.append(text);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void write(char c) {
+                try {
+                    writer.write(c);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+}
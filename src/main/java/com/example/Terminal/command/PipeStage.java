@@ -0,0 +1,13 @@
+package com.example.Terminal.command;
+
+import com.example.Terminal.service.TerminalSession;
+
+import java.util.stream.Stream;
+
+// Comando que participa de um pipe (cat a | grep x | head 5) lendo as linhas do comando anterior. O Stream é
+// preguiçoso: as linhas só são produzidas quando o último comando as consome, então um head no fim interrompe
+// a leitura lá no começo. "input" é null quando o comando é o primeiro do pipe (lê os próprios argumentos)
+@FunctionalInterface
+public interface PipeStage {
+    Stream<String> apply(TerminalSession session, CommandLine line, Stream<String> input);
+}
@@ -0,0 +1,74 @@
+package com.example.Terminal.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Script com vários comandos separados por ';', '&&' ou quebras de linha (e, dentro de um comando, o pipe '|'). Separadores dentro de aspas (simples ou
+// duplas, como no CommandLine) fazem parte do comando. Comandos vazios (ex.: "a;;b" ou ';' no final) são ignorados
+public final class Script {
+
+    // "onlyIfSuccess" é true para comandos depois de '&&': só rodam se o anterior terminou com status 0
+    public record Step(String command, boolean onlyIfSuccess) {
+    }
+
+    private Script() {
+    }
+
+    public static List<Step> parse(String script) {
+        List<Step> steps = new ArrayList<>();
+        StringBuilder command = new StringBuilder();
+        boolean onlyIfSuccess = false;
+        char quote = 0;
+
+        for (int i = 0; i < script.length(); i++) {
+            char c = script.charAt(i);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+                command.append(c);
+                continue;
+            }
+
+            boolean and = c == '&' && i + 1 < script.length() && script.charAt(i + 1) == '&';
+            if (c == ';' || c == '\n' || and) {
+                add(steps, command, onlyIfSuccess);
+                // Depois de um comando vazio o '&&' continua valendo para o próximo
+                onlyIfSuccess = and || (onlyIfSuccess && command.toString().isBlank());
+                command.setLength(0);
+                if (and) i++;
+                continue;
+            }
+            if (c == '"' || c == '\'') quote = c;
+            command.append(c);
+        }
+        add(steps, command, onlyIfSuccess);
+        return steps;
+    }
+
+    // Comandos de um pipe ("cat a | grep x"), separados por '|' fora de aspas. Um único elemento quando não há pipe;
+    // partes vazias (ex.: "a || b" ou '|' no final) são mantidas para o erro de sintaxe
+    public static List<String> pipeline(String command) {
+        List<String> stages = new ArrayList<>();
+        int start = 0;
+        char quote = 0;
+        for (int i = 0; i < command.length(); i++) {
+            char c = command.charAt(i);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '|') {
+                stages.add(command.substring(start, i).strip());
+                start = i + 1;
+            }
+        }
+        stages.add(stages.isEmpty() ? command : command.substring(start).strip());
+        return stages;
+    }
+
+    private static void add(List<Step> steps, StringBuilder command, boolean onlyIfSuccess) {
+        String text = command.toString().strip();
+        if (!text.isEmpty()) {
+            steps.add(new Step(text, onlyIfSuccess));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.Terminal.command;
+
+import com.example.Terminal.service.TerminalSession;
+
+// Comando que escreve a saída aos poucos no OutputSink (cat, tree, history...), sem montá-la inteira na memória
+@FunctionalInterface
+public interface StreamingCommand {
+    void execute(TerminalSession session, CommandLine line, OutputSink out);
+}
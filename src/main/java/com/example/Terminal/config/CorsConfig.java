@@ -11,7 +11,8 @@ public class CorsConfig {
         return new WebMvcConfigurer() {
             @Override
             public void addCorsMappings(CorsRegistry registry) {
-                registry.addMapping("/api/**").allowedOrigins("*").allowedMethods("POST","GET");
+                registry.addMapping("/api/**").allowedOrigins("*").allowedMethods("POST","GET")
+                        .exposedHeaders("X-Terminal-Session");
             }
         };
     }
@@ -0,0 +1,23 @@
+package com.example.Terminal.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.example.Terminal.service.TerminalService;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+// Libera o DEBUG dos loggers da aplicação para as sessões com "trace on" (terminal.trace=on no MDC). Os demais
+// níveis e os loggers de fora (Spring, Tomcat) continuam decididos pela configuração normal
+public class TraceTurboFilter extends TurboFilter {
+    private static final String APPLICATION_LOGGERS = "com.example.Terminal";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level != Level.DEBUG || !logger.getName().startsWith(APPLICATION_LOGGERS)) {
+            return FilterReply.NEUTRAL;
+        }
+        return "on".equals(MDC.get(TerminalService.MDC_TRACE)) ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.Terminal.config;
+
+import com.example.Terminal.controller.TerminalWebSocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+// Terminal via WebSocket: uma conexão por aba, ligada a uma sessão do terminal. Qualquer origem pode conectar
+// porque a sessão só vem do token explícito na URL (?session=), nunca do cookie, que o navegador enviaria também
+// em conexões abertas por outros sites
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+    private final TerminalWebSocketHandler terminalHandler;
+
+    public WebSocketConfig(TerminalWebSocketHandler terminalHandler) {
+        this.terminalHandler = terminalHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(terminalHandler, "/ws/terminal").setAllowedOrigins("*");
+    }
+}
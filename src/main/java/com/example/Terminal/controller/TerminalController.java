@@ -1,27 +1,111 @@
 package com.example.Terminal.controller;
 
+import com.example.Terminal.command.OutputSink;
+import com.example.Terminal.service.CommandExecutor;
+import com.example.Terminal.service.CommandResult;
+import com.example.Terminal.service.SessionRegistry;
 import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/terminal")
 public class TerminalController {
+    // Cabeçalho e cookie que identificam a sessão do terminal
+    public static final String SESSION_HEADER = "X-Terminal-Session";
+    public static final String SESSION_COOKIE = "TERMINAL_SESSION";
+
     private final TerminalService terminalService;
+    private final SessionRegistry sessionRegistry;
+    private final CommandExecutor commandExecutor;
 
-    public TerminalController(TerminalService terminalService) {
+    public TerminalController(TerminalService terminalService, SessionRegistry sessionRegistry,
+                              CommandExecutor commandExecutor) {
         this.terminalService = terminalService;
+        this.sessionRegistry = sessionRegistry;
+        this.commandExecutor = commandExecutor;
     }
 
+    // No modo virtual do CommandExecutor a resposta é assíncrona: a thread do Tomcat é liberada enquanto o comando roda
     @PostMapping("/execute")
-    public String executeCommand(@RequestBody String command) {
-        String output = terminalService.executeCommand(command).trim();
-
+    public CompletableFuture<String> executeCommand(@RequestBody String command,
+                                 @RequestHeader(value = SESSION_HEADER, required = false) String sessionHeader,
+                                 @CookieValue(value = SESSION_COOKIE, required = false) String sessionCookie,
+                                 HttpServletResponse response) {
+        TerminalSession session = resolveSession(sessionHeader, sessionCookie, response);
         // 🔥 Retorna apenas a saída do comando, sem adicionar o prompt novamente
-        return output.isEmpty() ? "" : output;
+        return commandExecutor.submit(session, () -> terminalService.executeCommand(session, command).trim());
+    }
+
+    // Mesma execução, mas a saída é enviada em partes (chunked) enquanto o comando escreve: cat e tree de
+    // arquivos/árvores grandes não precisam ser montados inteiros na memória. A saída não passa pelo trim()
+    @PostMapping(value = "/execute/stream", produces = "text/plain;charset=UTF-8")
+    public StreamingResponseBody executeCommandStream(@RequestBody String command,
+                                                      @RequestHeader(value = SESSION_HEADER, required = false) String sessionHeader,
+                                                      @CookieValue(value = SESSION_COOKIE, required = false) String sessionCookie,
+                                                      HttpServletResponse response) {
+        // A sessão é resolvida antes: os cabeçalhos precisam sair antes do primeiro pedaço do corpo
+        TerminalSession session = resolveSession(sessionHeader, sessionCookie, response);
+        return out -> commandExecutor.submit(session, () -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            terminalService.executeCommand(session, command, OutputSink.of(writer));
+            writer.flush();
+            return null;
+        }).join();
+    }
+
+    // Vários comandos em uma única requisição, na ordem, com o resultado de cada um: JSON com a lista de comandos
+    // (["mkdir src", "cd src && touch App.java"]) ou texto com um script (comandos separados por ';', '&&' ou linhas)
+    @PostMapping(value = "/batch", consumes = "application/json")
+    public CompletableFuture<List<CommandResult>> executeBatch(@RequestBody List<String> commands,
+                                                              @RequestHeader(value = SESSION_HEADER, required = false) String sessionHeader,
+                                                              @CookieValue(value = SESSION_COOKIE, required = false) String sessionCookie,
+                                                              HttpServletResponse response) {
+        TerminalSession session = resolveSession(sessionHeader, sessionCookie, response);
+        return commandExecutor.submit(session, () -> terminalService.executeScript(session, commands));
+    }
+
+    @PostMapping(value = "/batch", consumes = "text/plain")
+    public CompletableFuture<List<CommandResult>> executeBatchScript(@RequestBody String script,
+                                                                    @RequestHeader(value = SESSION_HEADER, required = false) String sessionHeader,
+                                                                    @CookieValue(value = SESSION_COOKIE, required = false) String sessionCookie,
+                                                                    HttpServletResponse response) {
+        return executeBatch(List.of(script), sessionHeader, sessionCookie, response);
     }
 
     @GetMapping("/current-path")
-    public String getCurrentPath() {
-        return terminalService.getCurrentPath();
+    public String getCurrentPath(@RequestHeader(value = SESSION_HEADER, required = false) String sessionHeader,
+                                 @CookieValue(value = SESSION_COOKIE, required = false) String sessionCookie,
+                                 HttpServletResponse response) {
+        TerminalSession session = resolveSession(sessionHeader, sessionCookie, response);
+        return terminalService.getCurrentPath(session);
+    }
+
+    // Busca a sessão pelo cabeçalho (ou cookie) e devolve o token ao cliente para as próximas requisições
+    private TerminalSession resolveSession(String sessionHeader, String sessionCookie, HttpServletResponse response) {
+        String token = (sessionHeader != null && !sessionHeader.isBlank()) ? sessionHeader : sessionCookie;
+        TerminalSession session = sessionRegistry.getOrCreate(token);
+
+        response.setHeader(SESSION_HEADER, session.getId());
+        if (!session.getId().equals(sessionCookie)) {
+            ResponseCookie cookie = ResponseCookie.from(SESSION_COOKIE, session.getId())
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Strict")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+        return session;
     }
-}
\ No newline at end of file
+}
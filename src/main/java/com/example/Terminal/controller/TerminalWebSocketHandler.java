@@ -0,0 +1,165 @@
+package com.example.Terminal.controller;
+
+import com.example.Terminal.command.OutputSink;
+import com.example.Terminal.service.CommandExecutor;
+import com.example.Terminal.service.SessionLimitExceededException;
+import com.example.Terminal.service.SessionRegistry;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+// Terminal em /ws/terminal: cada mensagem de texto recebida é um comando. O servidor responde com quadros JSON:
+//   {"type":"ready","session":...,"path":...}  ao conectar
+//   {"type":"output","data":...}               partes da saída, enviadas enquanto o comando escreve
+//   {"type":"done","session":...,"path":...}   fim do comando, já com o caminho para o próximo prompt
+//   {"type":"error","message":...}             antes de fechar a conexão (ex.: limite de sessões)
+// A sessão do terminal vem só do parâmetro "?session=" (o navegador não envia cabeçalhos próprios no WebSocket). O
+// cookie não é aceito: o navegador o envia em conexões abertas por qualquer página, e com as origens liberadas
+// uma página de outro site poderia usar a sessão de quem a visitou
+@Component
+public class TerminalWebSocketHandler extends TextWebSocketHandler {
+    private static final Logger log = LoggerFactory.getLogger(TerminalWebSocketHandler.class);
+
+    // Caracteres acumulados antes de enviar um quadro de saída
+    static final int FRAME_CHARS = 8192;
+    private static final int SEND_TIME_LIMIT_MS = 10_000;
+    private static final int SEND_BUFFER_LIMIT = 1 << 20;
+
+    // Atributos da conexão: token da sessão do terminal e a conexão protegida para envios concorrentes
+    private static final String TOKEN = "terminal.token";
+    private static final String SENDER = "terminal.sender";
+
+    private final TerminalService terminalService;
+    private final SessionRegistry sessionRegistry;
+    private final CommandExecutor commandExecutor;
+    private final ObjectMapper objectMapper;
+
+    public TerminalWebSocketHandler(TerminalService terminalService, SessionRegistry sessionRegistry,
+                                    CommandExecutor commandExecutor, ObjectMapper objectMapper) {
+        this.terminalService = terminalService;
+        this.sessionRegistry = sessionRegistry;
+        this.commandExecutor = commandExecutor;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession connection) throws Exception {
+        WebSocketSession sender = new ConcurrentWebSocketSessionDecorator(connection, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT);
+        connection.getAttributes().put(SENDER, sender);
+        connection.getAttributes().put(TOKEN, token(connection));
+
+        TerminalSession session = resolveSession(connection, sender);
+        if (session != null) {
+            send(sender, Map.of("type", "ready", "session", session.getId(), "path", terminalService.getCurrentPath(session)));
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession connection, TextMessage message) throws Exception {
+        WebSocketSession sender = (WebSocketSession) connection.getAttributes().get(SENDER);
+        // A sessão pode ter expirado desde o último comando: nesse caso uma nova é criada e o "done" leva o novo token
+        TerminalSession session = resolveSession(connection, sender);
+        if (session == null) {
+            return;
+        }
+
+        // No modo virtual a mensagem seguinte já pode ser recebida; a fila da sessão garante a ordem dos comandos
+        commandExecutor.submit(session, () -> {
+            FrameSink out = new FrameSink(sender);
+            terminalService.executeCommand(session, message.getPayload(), out);
+            out.flush();
+            send(sender, Map.of("type", "done", "session", session.getId(), "path", terminalService.getCurrentPath(session)));
+            return null;
+        }).exceptionally(error -> {
+            log.warn("Falha ao executar comando pelo WebSocket: {}", error.toString());
+            try {
+                connection.close(CloseStatus.SERVER_ERROR);
+            } catch (IOException ignored) {
+                // A conexão já caiu
+            }
+            return null;
+        });
+    }
+
+    // Sessão do token da conexão; sem vaga para uma nova sessão, avisa o cliente, fecha a conexão e devolve null
+    private TerminalSession resolveSession(WebSocketSession connection, WebSocketSession sender) throws IOException {
+        try {
+            TerminalSession session = sessionRegistry.getOrCreate((String) connection.getAttributes().get(TOKEN));
+            connection.getAttributes().put(TOKEN, session.getId());
+            return session;
+        } catch (SessionLimitExceededException e) {
+            send(sender, Map.of("type", "error", "message", e.getMessage()));
+            connection.close(CloseStatus.SERVICE_OVERLOAD.withReason(e.getMessage()));
+            return null;
+        }
+    }
+
+    private void send(WebSocketSession sender, Map<String, String> frame) throws IOException {
+        sender.sendMessage(new TextMessage(objectMapper.writeValueAsString(frame)));
+    }
+
+    // Junta as escritas do comando em quadros de até FRAME_CHARS caracteres (um quadro por escrita seria caro demais)
+    private final class FrameSink implements OutputSink {
+        private final WebSocketSession sender;
+        private final StringBuilder buffer = new StringBuilder();
+
+        FrameSink(WebSocketSession sender) {
+            this.sender = sender;
+        }
+
+        @Override
+        public void write(CharSequence text) {
+            buffer.append(text);
+            if (buffer.length() >= FRAME_CHARS) {
+                flush();
+            }
+        }
+
+        @Override
+        public void write(char c) {
+            buffer.append(c);
+            if (buffer.length() >= FRAME_CHARS) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            try {
+                send(sender, Map.of("type", "output", "data", buffer.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.setLength(0);
+        }
+    }
+
+    // Token do parâmetro "session" da URL (sem ele, uma nova sessão é criada)
+    private static String token(WebSocketSession connection) {
+        String query = connection.getUri() != null ? connection.getUri().getRawQuery() : null;
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("session=")) {
+                    return URLDecoder.decode(param.substring("session=".length()), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.Terminal.index;
+
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.File;
+import com.example.Terminal.model.TreeListener;
+import com.example.Terminal.model.TreeWalker;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Índice de trigramas do conteúdo dos arquivos de uma árvore (trigrama -> arquivos), mantido pelos eventos da raiz.
+// O grep -r só lê as linhas dos arquivos que contêm todos os trigramas do termo. Os trigramas não atravessam
+// quebras de linha, já que o grep procura o termo dentro de cada linha. Acréscimos (echo >>) só indexam a
+// nova linha; o índice pode ficar com trigramas a mais, nunca a menos, e cada candidato é conferido linha a linha.
+// Arquivos restaurados de um snapshot com o conteúdo ainda não carregado não são lidos: ficam de fora das listas e
+// são sempre candidatos, até a primeira leitura ou alteração
+public class ContentIndex implements TreeListener {
+    // Trocadas por tabelas novas quando a árvore inteira é substituída (clear custaria o tamanho da tabela)
+    private volatile Tables tables = new Tables();
+
+    private static final class Tables {
+        // Id e trigramas de cada arquivo indexado, para retirá-lo das listas quando for removido ou sobrescrito
+        final Map<File, Indexed> files = new ConcurrentHashMap<>();
+        final Map<Integer, File> byId = new ConcurrentHashMap<>();
+        final AtomicInteger nextId = new AtomicInteger();
+        final Map<Long, Posting> postings = new ConcurrentHashMap<>();
+        // Pares trigrama/id nas listas: os de ids retirados só saem na próxima limpeza
+        final AtomicLong linked = new AtomicLong();
+        final AtomicLong retired = new AtomicLong();
+        final AtomicBoolean compacting = new AtomicBoolean();
+        // Arquivos com o conteúdo fora do heap, ainda não indexados
+        final Set<File> unindexed = ConcurrentHashMap.newKeySet();
+        final LazyCopies lazyCopies = new LazyCopies();
+    }
+
+    // Trigramas do arquivo em ordem crescente, sem repetição
+    private record Indexed(int id, long[] trigrams) {
+    }
+
+    // Ids dos arquivos que têm o trigrama, em ordem crescente (como um arquivo novo ou sobrescrito recebe um id
+    // novo, quase sempre o id entra no fim). Remover um arquivo não mexe nas listas: o id dele deixa de valer e sai
+    // na limpeza, feita quando os ids retirados passam dos que estão em uso
+    private static final class Posting {
+        private int[] ids = new int[2];
+        private int size;
+
+        synchronized void add(int id) {
+            int at = size;
+            while (at > 0 && ids[at - 1] > id) {
+                at--;
+            }
+            if (at > 0 && ids[at - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        synchronized boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        // Tira os ids que não estão mais em uso; retorna true se a lista ficou vazia
+        synchronized boolean compact(Map<Integer, File> byId) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (byId.containsKey(ids[i])) {
+                    ids[kept++] = ids[i];
+                }
+            }
+            size = kept;
+            if (kept < ids.length / 4) {
+                ids = Arrays.copyOf(ids, Math.max(kept, 2));
+            }
+            return kept == 0;
+        }
+    }
+
+    @Override
+    public void directoryAdded(Directory directory) {
+        tables.lazyCopies.added(directory);
+    }
+
+    @Override
+    public void directoryRemoved(Directory directory) {
+        tables.lazyCopies.removed(directory);
+    }
+
+    @Override
+    public void treeReplaced() {
+        tables = new Tables();
+    }
+
+    @Override
+    public void fileAdded(File file) {
+        Tables current = tables;
+        if (file.unloadedContent() != null) {
+            fileRemoved(file);
+            current.unindexed.add(file);
+            return;
+        }
+        index(current, file, true);
+    }
+
+    // Indexa o conteúdo inteiro com um id novo; o id anterior, se houver, é retirado. Com "create" falso só
+    // reindexa um arquivo que já está no índice (não traz de volta um arquivo removido no meio do caminho)
+    private static void index(Tables tables, File file, boolean create) {
+        Indexed[] replaced = new Indexed[1];
+        tables.files.compute(file, (f, previous) -> {
+            if (previous == null && !create) {
+                return null;
+            }
+            replaced[0] = previous;
+            Indexed indexed = new Indexed(tables.nextId.getAndIncrement(), trigrams(file));
+            tables.byId.put(indexed.id(), file);
+            if (previous != null) {
+                tables.byId.remove(previous.id());
+            }
+            link(tables, indexed.id(), indexed.trigrams());
+            return indexed;
+        });
+        if (replaced[0] != null) {
+            retire(tables, replaced[0]);
+        }
+    }
+
+    @Override
+    public void fileRemoved(File file) {
+        Tables current = tables;
+        current.unindexed.remove(file);
+        Indexed removed = current.files.remove(file);
+        if (removed != null) {
+            current.byId.remove(removed.id());
+            retire(current, removed);
+        }
+    }
+
+    @Override
+    public void fileWritten(File file) {
+        Tables current = tables;
+        index(current, file, current.unindexed.remove(file));
+    }
+
+    @Override
+    public void fileLoaded(File file) {
+        if (tables.unindexed.remove(file)) {
+            fileAdded(file);
+        }
+    }
+
+    // O acréscimo carrega o conteúdo antes (fileLoaded): o arquivo já está indexado quando a linha chega
+    @Override
+    public void fileAppended(File file, String line) {
+        Tables current = tables;
+        current.files.computeIfPresent(file, (f, indexed) -> {
+            long[] existing = indexed.trigrams();
+            long[] added = Arrays.stream(trigrams(Stream.of(line)))
+                    .filter(trigram -> Arrays.binarySearch(existing, trigram) < 0).toArray();
+            if (added.length == 0) {
+                return indexed;
+            }
+            link(current, indexed.id(), added);
+            long[] merged = Arrays.copyOf(existing, existing.length + added.length);
+            System.arraycopy(added, 0, merged, existing.length, added.length);
+            Arrays.sort(merged);
+            return new Indexed(indexed.id(), merged);
+        });
+    }
+
+    private static void link(Tables tables, int id, long[] trigrams) {
+        for (long trigram : trigrams) {
+            // compute em vez de computeIfAbsent().add: a lista não pode ser descartada pela limpeza entre as duas chamadas
+            tables.postings.compute(trigram, (t, posting) -> {
+                if (posting == null) posting = new Posting();
+                posting.add(id);
+                return posting;
+            });
+        }
+        tables.linked.addAndGet(trigrams.length);
+    }
+
+    // O id já saiu de byId: conta os pares dele como lixo e limpa as listas quando o lixo passar do que está em uso
+    private static void retire(Tables tables, Indexed indexed) {
+        long retired = tables.retired.addAndGet(indexed.trigrams().length);
+        if (retired > Math.max(tables.linked.get() - retired, 1024) && tables.compacting.compareAndSet(false, true)) {
+            try {
+                tables.retired.addAndGet(-retired);
+                tables.linked.addAndGet(-retired);
+                for (Long trigram : tables.postings.keySet()) {
+                    tables.postings.computeIfPresent(trigram, (t, posting) -> posting.compact(tables.byId) ? null : posting);
+                }
+            } finally {
+                tables.compacting.set(false);
+            }
+        }
+    }
+
+    private static long[] trigrams(File file) {
+        return trigrams(file.content().lines());
+    }
+
+    // Trigramas das linhas em ordem crescente, sem repetição
+    private static long[] trigrams(Stream<String> lines) {
+        long[][] found = {new long[16]};
+        int[] count = {0};
+        lines.forEach(line -> {
+            for (int i = 0; i + 3 <= line.length(); i++) {
+                char a = line.charAt(i), b = line.charAt(i + 1), c = line.charAt(i + 2);
+                if (a == '\n' || b == '\n' || c == '\n') {
+                    continue;
+                }
+                if (count[0] == found[0].length) {
+                    found[0] = Arrays.copyOf(found[0], count[0] * 2);
+                }
+                found[0][count[0]++] = encode(a, b, c);
+            }
+        });
+        long[] sorted = found[0];
+        Arrays.sort(sorted, 0, count[0]);
+        int distinct = 0;
+        for (int i = 0; i < count[0]; i++) {
+            if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private static long encode(char a, char b, char c) {
+        return (long) a << 32 | (long) b << 16 | c;
+    }
+
+    // Quantidade de arquivos indexados (incluindo os que ainda não foram lidos)
+    public int size() {
+        Tables current = tables;
+        return current.files.size() + current.unindexed.size();
+    }
+
+    // Arquivos abaixo de "start" que podem conter o termo, indexados pelo caminho (com "prefix" no lugar do nome
+    // de "start") e na ordem da busca recursiva. Termos com menos de três caracteres não têm trigramas: nesse caso
+    // todos os arquivos da subárvore são candidatos
+    public Map<String, File> candidates(Directory start, String term, String prefix) {
+        long[] required = trigrams(Stream.of(term));
+        Map<String, File> result = new LinkedHashMap<>();
+        if (required.length == 0) {
+            collect(start, prefix, result);
+            return result;
+        }
+
+        Tables current = tables;
+        current.lazyCopies.expandUnder(start);
+        Map<TreePath, File> found = new TreeMap<>();
+        for (File file : current.unindexed) {
+            TreePath path = TreePath.of(start, file);
+            if (path != null) {
+                found.put(path, file);
+            }
+        }
+
+        // Começa pela lista mais curta e descarta quem não estiver nas demais
+        List<Posting> lists = new ArrayList<>();
+        for (long trigram : required) {
+            Posting posting = current.postings.get(trigram);
+            if (posting == null) {
+                // Nenhum arquivo indexado tem o termo
+                lists.clear();
+                break;
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Posting::size));
+
+        for (int id : lists.isEmpty() ? new int[0] : lists.get(0).toArray()) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            // Id retirado (arquivo removido ou sobrescrito) que ainda não saiu das listas
+            File file = inAll ? current.byId.get(id) : null;
+            TreePath path = file != null ? TreePath.of(start, file) : null;
+            if (path != null) {
+                found.put(path, file);
+            }
+        }
+        found.forEach((path, file) -> result.put(path.toString(prefix), file));
+        return result;
+    }
+
+    private static void collect(Directory start, String prefix, Map<String, File> files) {
+        for (Map<String, File> chunk : TreeWalker.walk(start, new StringBuilder(prefix), FILE_COLLECTOR)) {
+            files.putAll(chunk);
+        }
+    }
+
+    // Caminho de cada arquivo da subárvore; o estado é o caminho do diretório atual
+    private static final TreeWalker.Visitor<StringBuilder, Map<String, File>> FILE_COLLECTOR = new TreeWalker.Visitor<>() {
+        @Override
+        public Map<String, File> newChunk() {
+            return new LinkedHashMap<>();
+        }
+
+        @Override
+        public StringBuilder copy(StringBuilder path) {
+            return new StringBuilder(path);
+        }
+
+        @Override
+        public void enter(Directory dir, int depth, boolean last, StringBuilder path, Map<String, File> out) {
+            if (depth > 0) {
+                path.append('/').append(dir.getName());
+            }
+            int length = path.length();
+            for (File file : dir.getFiles()) {
+                out.put(path.append('/').append(file.getName()).toString(), file);
+                path.setLength(length);
+            }
+        }
+
+        @Override
+        public void exit(Directory dir, int depth, boolean last, StringBuilder path, Map<String, File> out) {
+            if (depth > 0) {
+                path.setLength(path.length() - dir.getName().length() - 1);
+            }
+        }
+    };
+}
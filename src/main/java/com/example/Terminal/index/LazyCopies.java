@@ -0,0 +1,39 @@
+package com.example.Terminal.index;
+
+import com.example.Terminal.model.Directory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cópias preguiçosas (cp -r) que entraram na árvore e ainda não foram expandidas: os nós delas só chegam ao índice
+// quando são criados. Antes de uma consulta os que ficam abaixo do diretório consultado são expandidos, e os
+// eventos da expansão colocam os novos nós no índice
+final class LazyCopies {
+    private final Set<Directory> pending = ConcurrentHashMap.newKeySet();
+
+    void added(Directory directory) {
+        if (directory.isLazy()) {
+            pending.add(directory);
+        }
+    }
+
+    void removed(Directory directory) {
+        pending.remove(directory);
+    }
+
+    void expandUnder(Directory start) {
+        if (start.isLazy()) {
+            start.expandAll();
+        }
+        for (Directory directory : pending) {
+            // Já expandida por outra leitura: os filhos dela entraram no conjunto pelos eventos
+            if (!directory.isLazy()) {
+                pending.remove(directory);
+            } else if (TreePath.of(start, directory) != null) {
+                // A expansão de cada nível gera novas cópias, que o próprio expandAll já expande
+                directory.expandAll();
+                pending.remove(directory);
+            }
+        }
+    }
+}
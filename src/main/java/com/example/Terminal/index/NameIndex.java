@@ -0,0 +1,192 @@
+package com.example.Terminal.index;
+
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.File;
+import com.example.Terminal.model.TreeListener;
+import com.example.Terminal.util.TextUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Índice invertido dos nomes de uma árvore (nome -> nós e trigrama -> nomes), mantido pelos eventos da raiz.
+// O find consulta só os nomes que podem casar com o padrão em vez de percorrer a subárvore inteira.
+// Os caminhos são montados na hora da consulta, subindo pelos pais, então mover um diretório não custa nada
+// ao índice; na mesma subida são ignorados os nós que já não estão na árvore
+public class NameIndex implements TreeListener {
+    // Trocadas por tabelas novas quando a árvore inteira é substituída (clear custaria o tamanho da tabela)
+    private volatile Tables tables = new Tables();
+
+    private static final class Tables {
+        final Map<String, Entry> names = new ConcurrentHashMap<>();
+        final Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+        final LazyCopies lazyCopies = new LazyCopies();
+    }
+
+    // Nós com um mesmo nome
+    private static final class Entry {
+        final Set<Directory> directories = ConcurrentHashMap.newKeySet();
+        final Set<File> files = ConcurrentHashMap.newKeySet();
+
+        boolean isEmpty() {
+            return directories.isEmpty() && files.isEmpty();
+        }
+    }
+
+    @Override
+    public void directoryAdded(Directory directory) {
+        tables.lazyCopies.added(directory);
+        add(directory.getName(), entry -> entry.directories.add(directory));
+    }
+
+    @Override
+    public void directoryRemoved(Directory directory) {
+        tables.lazyCopies.removed(directory);
+        remove(directory.getName(), entry -> entry.directories.remove(directory));
+    }
+
+    @Override
+    public void directoryRenamed(Directory directory, String oldName) {
+        remove(oldName, entry -> entry.directories.remove(directory));
+        directoryAdded(directory);
+    }
+
+    @Override
+    public void fileAdded(File file) {
+        add(file.getName(), entry -> entry.files.add(file));
+    }
+
+    @Override
+    public void fileRemoved(File file) {
+        remove(file.getName(), entry -> entry.files.remove(file));
+    }
+
+    @Override
+    public void fileRenamed(File file, String oldName) {
+        remove(oldName, entry -> entry.files.remove(file));
+        fileAdded(file);
+    }
+
+    // A árvore nova é indexada conforme os nós forem criados (a raiz é uma cópia preguiçosa do snapshot)
+    @Override
+    public void treeReplaced() {
+        tables = new Tables();
+    }
+
+    // Cada nome é alterado dentro do compute da sua chave, então os trigramas entram e saem junto com ele
+    private void add(String name, Consumer<Entry> change) {
+        Tables current = tables;
+        Map<String, Set<String>> trigrams = current.trigrams;
+        current.names.compute(name, (key, entry) -> {
+            if (entry == null) {
+                entry = new Entry();
+                for (String trigram : TextUtils.trigrams(name)) {
+                    trigrams.compute(trigram, (t, set) -> {
+                        if (set == null) set = ConcurrentHashMap.newKeySet();
+                        set.add(name);
+                        return set;
+                    });
+                }
+            }
+            change.accept(entry);
+            return entry;
+        });
+    }
+
+    private void remove(String name, Consumer<Entry> change) {
+        Tables current = tables;
+        Map<String, Set<String>> trigrams = current.trigrams;
+        current.names.computeIfPresent(name, (key, entry) -> {
+            change.accept(entry);
+            if (!entry.isEmpty()) {
+                return entry;
+            }
+            for (String trigram : TextUtils.trigrams(name)) {
+                trigrams.computeIfPresent(trigram, (t, set) -> {
+                    set.remove(name);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+            return null;
+        });
+    }
+
+    // Quantidade de nomes distintos no índice
+    public int size() {
+        return tables.names.size();
+    }
+
+    // Nomes indexados que casam com o padrão: busca direta para nomes exatos, interseção de trigramas quando o
+    // padrão tem trechos literais e, só no último caso, verificação de todos os nomes distintos
+    public List<String> names(NamePattern pattern) {
+        Tables current = tables;
+        Map<String, Entry> names = current.names;
+        Map<String, Set<String>> trigrams = current.trigrams;
+        if (pattern.literal() != null) {
+            return names.containsKey(pattern.literal()) ? List.of(pattern.literal()) : List.of();
+        }
+        Collection<String> candidates = names.keySet();
+        for (String trigram : pattern.trigrams()) {
+            Set<String> posting = trigrams.get(trigram);
+            if (posting == null) {
+                return List.of();
+            }
+            if (posting.size() < candidates.size()) {
+                candidates = posting;
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (String name : candidates) {
+            if (pattern.matches(name)) {
+                result.add(name);
+            }
+        }
+        return result;
+    }
+
+    // Primeiro diretório com esse nome na ordem em que a árvore é percorrida (pré-ordem, filhos por nome)
+    public Optional<Directory> firstDirectory(Directory root, String name) {
+        tables.lazyCopies.expandUnder(root);
+        Entry entry = tables.names.get(name);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        Directory first = null;
+        TreePath firstPath = null;
+        for (Directory directory : entry.directories) {
+            TreePath path = TreePath.of(root, directory);
+            if (path != null && (firstPath == null || path.compareTo(firstPath) < 0)) {
+                first = directory;
+                firstPath = path;
+            }
+        }
+        return Optional.ofNullable(first);
+    }
+
+    // Caminhos ("start/sub/nome") dos nós abaixo de "start" cujo nome casa com o padrão, na ordem da busca recursiva
+    public List<String> find(Directory start, NamePattern pattern) {
+        tables.lazyCopies.expandUnder(start);
+        List<TreePath> found = new ArrayList<>();
+        for (String name : names(pattern)) {
+            Entry entry = tables.names.get(name);
+            if (entry == null) {
+                continue;
+            }
+            for (File file : entry.files) {
+                TreePath path = TreePath.of(start, file);
+                if (path != null) found.add(path);
+            }
+            for (Directory directory : entry.directories) {
+                TreePath path = TreePath.of(start, directory);
+                if (path != null) found.add(path);
+            }
+        }
+        Collections.sort(found);
+
+        List<String> paths = new ArrayList<>(found.size());
+        for (TreePath path : found) {
+            paths.add(path.toString(start.getName()));
+        }
+        return paths;
+    }
+}
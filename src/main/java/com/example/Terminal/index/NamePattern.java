@@ -0,0 +1,145 @@
+package com.example.Terminal.index;
+
+import com.example.Terminal.util.TextUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Padrão de nome do find: glob (-name, com * ? e [...]) ou expressão regular (-regex), sempre comparado
+// com o nome inteiro. Guarda também os trechos literais obrigatórios, usados para consultar o índice de trigramas
+public final class NamePattern {
+    private final Pattern pattern;
+    // Nome exato quando o padrão não tem nenhum curinga (null caso contrário)
+    private final String literal;
+    private final List<String> fragments;
+
+    private NamePattern(Pattern pattern, String literal, List<String> fragments) {
+        this.pattern = pattern;
+        this.literal = literal;
+        this.fragments = fragments;
+    }
+
+    public static NamePattern glob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        List<String> fragments = new ArrayList<>();
+        StringBuilder fragment = new StringBuilder();
+        boolean wildcard = false;
+
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            int close = c == '[' ? glob.indexOf(']', i + 2) : -1;
+            if (c == '*' || c == '?' || close > 0) {
+                wildcard = true;
+                addFragment(fragments, fragment);
+                if (c == '*') {
+                    regex.append(".*");
+                } else if (c == '?') {
+                    regex.append('.');
+                } else {
+                    // [!abc] é a negação no glob, [^abc] na regex
+                    String set = glob.substring(i + 1, close);
+                    if (set.startsWith("!")) set = "^" + set.substring(1);
+                    regex.append('[').append(set.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                    i = close;
+                }
+                continue;
+            }
+            if (c == '\\' && i + 1 < glob.length()) {
+                c = glob.charAt(++i);
+                wildcard = true;
+            }
+            fragment.append(c);
+            regex.append(Pattern.quote(String.valueOf(c)));
+        }
+        addFragment(fragments, fragment);
+        return new NamePattern(Pattern.compile(regex.toString()), wildcard ? null : glob, fragments);
+    }
+
+    // Lança PatternSyntaxException se a expressão for inválida
+    public static NamePattern regex(String regex) {
+        return new NamePattern(Pattern.compile(regex), null, regexFragments(regex));
+    }
+
+    // Trechos que qualquer nome aceito precisa conter. A análise é conservadora: na dúvida (alternativas com |,
+    // grupos, classes, quantificadores) o trecho é descartado, o que só deixa a consulta menos seletiva
+    private static List<String> regexFragments(String regex) {
+        List<String> fragments = new ArrayList<>();
+        if (regex.indexOf('|') >= 0 || regex.contains("(?")) {
+            // Alternativas ou flags (como (?i)) podem dispensar qualquer trecho
+            return fragments;
+        }
+        StringBuilder fragment = new StringBuilder();
+        int depth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            char literal;
+            if (c == '\\' && i + 1 < regex.length()) {
+                char next = regex.charAt(++i);
+                if (Character.isLetterOrDigit(next)) {
+                    // \d, \w, \Q... e referências: não são literais
+                    addFragment(fragments, fragment);
+                    continue;
+                }
+                literal = next;
+            } else if (c == '[') {
+                addFragment(fragments, fragment);
+                int close = regex.indexOf(']', i + 2);
+                i = close < 0 ? regex.length() : close;
+                continue;
+            } else if (c == '{') {
+                addFragment(fragments, fragment);
+                int close = regex.indexOf('}', i);
+                i = close < 0 ? regex.length() : close;
+                continue;
+            } else if (c == '(' || c == ')') {
+                addFragment(fragments, fragment);
+                depth += c == '(' ? 1 : -1;
+                continue;
+            } else if (".^$+*?}".indexOf(c) >= 0) {
+                addFragment(fragments, fragment);
+                continue;
+            } else {
+                literal = c;
+            }
+            if (depth > 0) {
+                continue;
+            }
+            // Um caractere seguido de ?, * ou {0,..} pode não aparecer
+            char following = i + 1 < regex.length() ? regex.charAt(i + 1) : 0;
+            if (following == '?' || following == '*' || following == '{') {
+                addFragment(fragments, fragment);
+                continue;
+            }
+            fragment.append(literal);
+        }
+        addFragment(fragments, fragment);
+        return fragments;
+    }
+
+    private static void addFragment(List<String> fragments, StringBuilder fragment) {
+        if (!fragment.isEmpty()) {
+            fragments.add(fragment.toString());
+            fragment.setLength(0);
+        }
+    }
+
+    public boolean matches(String name) {
+        return literal != null ? literal.equals(name) : pattern.matcher(name).matches();
+    }
+
+    public String literal() {
+        return literal;
+    }
+
+    // Trigramas obrigatórios (vazio se nenhum trecho literal tiver pelo menos 3 caracteres)
+    public Set<String> trigrams() {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String fragment : fragments) {
+            trigrams.addAll(TextUtils.trigrams(fragment));
+        }
+        return trigrams;
+    }
+}
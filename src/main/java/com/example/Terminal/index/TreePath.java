@@ -0,0 +1,69 @@
+package com.example.Terminal.index;
+
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.File;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// Caminho de um nó abaixo de um diretório, montado subindo pelos pais. A ordem é a mesma da busca recursiva:
+// em cada diretório os arquivos vêm antes dos subdiretórios e cada subdiretório antes do seu conteúdo
+final class TreePath implements Comparable<TreePath> {
+    // Arquivos são ordenados antes dos diretórios do mesmo nível
+    private static final char FILE = '0';
+    private static final char DIRECTORY = '1';
+
+    // Tipo + nome de cada nível abaixo do diretório inicial
+    private final List<String> parts;
+
+    private TreePath(List<String> parts) {
+        this.parts = parts;
+    }
+
+    // null se o arquivo não estiver abaixo de "start" ou não fizer mais parte da árvore
+    // (removido, ou no meio de um mv feito por outra requisição)
+    static TreePath of(Directory start, File file) {
+        Directory parent = file.getDirectory();
+        return parent != null && parent.contains(file) ? of(start, parent, FILE + file.getName()) : null;
+    }
+
+    static TreePath of(Directory start, Directory directory) {
+        Directory parent = directory.getParent();
+        return parent != null && parent.contains(directory) ? of(start, parent, DIRECTORY + directory.getName()) : null;
+    }
+
+    private static TreePath of(Directory start, Directory parent, String leaf) {
+        Deque<String> parts = new ArrayDeque<>();
+        parts.push(leaf);
+        Directory current = parent;
+        while (current != start) {
+            Directory up = current.getParent();
+            if (up == null || !up.contains(current)) {
+                return null;
+            }
+            parts.push(DIRECTORY + current.getName());
+            current = up;
+        }
+        return new TreePath(new ArrayList<>(parts));
+    }
+
+    // "prefix/sub/nome"
+    String toString(String prefix) {
+        StringBuilder path = new StringBuilder(prefix);
+        for (String part : parts) {
+            path.append('/').append(part, 1, part.length());
+        }
+        return path.toString();
+    }
+
+    @Override
+    public int compareTo(TreePath other) {
+        for (int i = 0; i < Math.min(parts.size(), other.parts.size()); i++) {
+            int cmp = parts.get(i).compareTo(other.parts.get(i));
+            if (cmp != 0) return cmp;
+        }
+        return Integer.compare(parts.size(), other.parts.size());
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.Terminal.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+// Arquivo compactado (zip): as entradas, com o caminho relativo, ficam comprimidas com Deflater em um único bloco
+// de bytes, que é tudo o que o arquivo ocupa (no heap ou no snapshot mapeado). O tamanho do arquivo é o do bloco
+// e ler o conteúdo (cat, grep) mostra a lista de entradas, como o unzip -l. O bloco nunca muda; escrever no
+// arquivo (echo >) substitui o nó por um arquivo de texto
+public final class ArchiveFile extends File {
+    private static final int MAGIC = 0x545a4950;
+    private static final byte FILE = 0;
+    private static final byte DIRECTORY = 1;
+    private static final byte ARCHIVE = 2;
+    // A partir deste total de caracteres cada entrada é compactada por uma tarefa do ForkJoinPool
+    private static final long PARALLEL_CHARS = 1 << 20;
+    // Blocos criados pelo zip (ou extraídos de outro bloco) sem repetição entre arquivos e sessões; os mapeados
+    // de um snapshot ficam de fora (o hash leria as páginas do arquivo)
+    private static final BlobStore<ByteBuffer> BLOCKS = new BlobStore<>(
+            block -> (long) block.remaining() << 32 | (block.hashCode() & 0xffffffffL), ByteBuffer::equals);
+
+    // Magic e quantidade de entradas; cada entrada tem tipo, caminho, tamanho original, CRC32 e bytes compactados
+    private final ByteBuffer data;
+
+    public ArchiveFile(String name, ByteBuffer data) {
+        super(name);
+        // Um bloco somente leitura pode ser usado como está (só é lido por cópias de data())
+        this.data = data.isReadOnly() ? data : data.asReadOnlyBuffer();
+        if (this.data.remaining() < 8 || this.data.getInt(this.data.position()) != MAGIC) {
+            throw new IllegalArgumentException("Conteúdo não é um arquivo compactado: " + name);
+        }
+    }
+
+    // Entrada a compactar: diretórios têm file == null e o caminho termina com '/'
+    public record Source(String path, File file) {
+    }
+
+    // Recebe cada entrada extraída, na ordem em que foi compactada
+    public interface Extractor {
+        void directory(String path);
+
+        void file(String path, File file);
+    }
+
+    // Compacta as entradas (em paralelo quando há bastante conteúdo) e monta o bloco na ordem recebida
+    public static ArchiveFile create(String name, List<Source> sources) {
+        long total = sources.stream().filter(source -> source.file() != null).mapToLong(source -> source.file().length()).sum();
+        Stream<Source> stream = total >= PARALLEL_CHARS && sources.size() > 1 ? sources.parallelStream() : sources.stream();
+        List<Compressed> entries = stream.map(ArchiveFile::compress).toList();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ByteBuffer header = ByteBuffer.allocate(8).putInt(MAGIC).putInt(entries.size());
+        bytes.write(header.array(), 0, 8);
+        for (Compressed entry : entries) {
+            byte[] path = entry.path().getBytes(StandardCharsets.UTF_8);
+            ByteBuffer fields = ByteBuffer.allocate(1 + 4 + path.length + 4 + 4 + 4)
+                    .put(entry.kind()).putInt(path.length).put(path)
+                    .putInt(entry.size()).putInt(entry.crc()).putInt(entry.bytes().length);
+            bytes.write(fields.array(), 0, fields.capacity());
+            bytes.write(entry.bytes(), 0, entry.bytes().length);
+        }
+        return new ArchiveFile(name, BLOCKS.intern(ByteBuffer.wrap(bytes.toByteArray()).asReadOnlyBuffer()));
+    }
+
+    private record Compressed(byte kind, String path, int size, int crc, byte[] bytes) {
+    }
+
+    private static Compressed compress(Source source) {
+        if (source.file() == null) {
+            return new Compressed(DIRECTORY, source.path(), 0, 0, new byte[0]);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CRC32 crc = new CRC32();
+        long size = 0;
+        Deflater deflater = new Deflater();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater, 1 << 13)) {
+            if (source.file() instanceof ArchiveFile archive) {
+                // Arquivo compactado dentro de outro: os bytes vão como estão
+                ByteBuffer nested = archive.data();
+                byte[] buffer = new byte[nested.remaining()];
+                nested.get(buffer);
+                crc.update(buffer);
+                out.write(buffer);
+                size = buffer.length;
+            } else {
+                FileContent content = source.file().content();
+                for (int i = 0; i < content.lineCount(); i++) {
+                    byte[] line = (i > 0 ? "\n" + content.line(i) : content.line(i)).getBytes(StandardCharsets.UTF_8);
+                    crc.update(line);
+                    out.write(line);
+                    size += line.length;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Arquivo grande demais para compactar: " + source.path());
+        }
+        byte kind = source.file() instanceof ArchiveFile ? ARCHIVE : FILE;
+        // Arquivo vazio não precisa nem do cabeçalho do Deflater
+        return new Compressed(kind, source.path(), (int) size, (int) crc.getValue(), size == 0 ? new byte[0] : bytes.toByteArray());
+    }
+
+    // Bloco compactado (somente leitura), usado pelo snapshot
+    public ByteBuffer data() {
+        return data.duplicate();
+    }
+
+    // Caminhos das entradas, na ordem do arquivo (diretórios terminam com '/')
+    public List<String> paths() {
+        List<String> paths = new ArrayList<>();
+        ByteBuffer in = data();
+        int count = in.getInt(in.position() + 4);
+        in.position(in.position() + 8);
+        for (int i = 0; i < count; i++) {
+            in.get();
+            paths.add(readPath(in));
+            // Tamanho original e CRC, depois os bytes compactados
+            int length = in.getInt(in.position() + 8);
+            in.position(in.position() + 12 + length);
+        }
+        return paths;
+    }
+
+    // Descompacta uma entrada de cada vez e a entrega ao extractor; só a entrada atual fica descompactada na memória
+    public void extract(Extractor extractor) {
+        ByteBuffer in = data();
+        int count = in.getInt(in.position() + 4);
+        in.position(in.position() + 8);
+        for (int i = 0; i < count; i++) {
+            byte kind = in.get();
+            String path = readPath(in);
+            int size = in.getInt();
+            int crc = in.getInt();
+            int length = in.getInt();
+            ByteBuffer compressed = in.slice(in.position(), length);
+            in.position(in.position() + length);
+            if (kind == DIRECTORY) {
+                extractor.directory(path);
+                continue;
+            }
+
+            byte[] bytes = inflate(compressed, size, path);
+            CRC32 check = new CRC32();
+            check.update(bytes);
+            if ((int) check.getValue() != crc) {
+                throw new IllegalStateException("CRC inválido na entrada '" + path + "'");
+            }
+            String name = path.substring(path.lastIndexOf('/') + 1);
+            File file;
+            if (kind == ARCHIVE) {
+                file = new ArchiveFile(name, BLOCKS.intern(ByteBuffer.wrap(bytes).asReadOnlyBuffer()));
+            } else {
+                file = new File(name);
+                file.setContent(new String(bytes, StandardCharsets.UTF_8));
+            }
+            extractor.file(path, file);
+        }
+    }
+
+    private static byte[] inflate(ByteBuffer compressed, int size, String path) {
+        byte[] bytes = new byte[size];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int done = 0;
+            while (done < size && !inflater.finished()) {
+                int count = inflater.inflate(bytes, done, size - done);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                done += count;
+            }
+            if (done != size) {
+                throw new IllegalStateException("Entrada '" + path + "' incompleta no arquivo compactado");
+            }
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Entrada '" + path + "' corrompida no arquivo compactado", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static String readPath(ByteBuffer in) {
+        byte[] path = new byte[in.getInt()];
+        in.get(path);
+        return new String(path, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public FileContent content() {
+        return new FileContent(String.join("\n", paths()));
+    }
+
+    @Override
+    public long length() {
+        return data.remaining();
+    }
+
+    @Override
+    public boolean sameContent(File other) {
+        return other instanceof ArchiveFile archive && (archive.data == data || archive.data.equals(data));
+    }
+
+    @Override
+    public File copy(String name) {
+        return new ArchiveFile(name, data);
+    }
+
+    @Override
+    public synchronized void setContent(String content) {
+        throw new UnsupportedOperationException("Arquivo compactado não pode ser alterado: " + getName());
+    }
+
+    @Override
+    public synchronized void appendLine(String line) {
+        throw new UnsupportedOperationException("Arquivo compactado não pode ser alterado: " + getName());
+    }
+}
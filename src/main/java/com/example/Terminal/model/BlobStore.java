@@ -0,0 +1,65 @@
+package com.example.Terminal.model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.ToLongFunction;
+
+// Conteúdos imutáveis compartilhados por todas as sessões, endereçados pelo hash: um conteúdo igual a outro que já
+// está em uso é trocado pelo existente, então a memória depende dos conteúdos diferentes e não da quantidade de
+// arquivos. As entradas são referências fracas: a contagem de referências é a do coletor (enquanto algum arquivo,
+// cópia ou snapshot usa o conteúdo ele fica; quando o último o solta a entrada sai), sem que cada remoção de
+// arquivo precise avisar a loja. Dois conteúdos diferentes com o mesmo hash não são compartilhados
+final class BlobStore<T> {
+    private final ConcurrentHashMap<Long, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<T> released = new ReferenceQueue<>();
+    private final ToLongFunction<T> hash;
+    private final BiPredicate<T, T> same;
+
+    private static final class Entry<T> extends WeakReference<T> {
+        private final long key;
+
+        Entry(long key, T blob, ReferenceQueue<T> queue) {
+            super(blob, queue);
+            this.key = key;
+        }
+    }
+
+    BlobStore(ToLongFunction<T> hash, BiPredicate<T, T> same) {
+        this.hash = hash;
+        this.same = same;
+    }
+
+    // Devolve o conteúdo igual que já está guardado, ou guarda "blob" e o devolve. Quem recebe o resultado não
+    // pode alterá-lo
+    T intern(T blob) {
+        purge();
+        long key = hash.applyAsLong(blob);
+        while (true) {
+            Entry<T> entry = entries.get(key);
+            T existing = entry != null ? entry.get() : null;
+            if (existing != null) {
+                return existing == blob || same.test(existing, blob) ? existing : blob;
+            }
+            Entry<T> created = new Entry<>(key, blob, released);
+            if (entry == null ? entries.putIfAbsent(key, created) == null : entries.replace(key, entry, created)) {
+                return blob;
+            }
+        }
+    }
+
+    // Quantidade de conteúdos diferentes em uso
+    int size() {
+        purge();
+        return entries.size();
+    }
+
+    // Tira as entradas cujo conteúdo já foi coletado
+    private void purge() {
+        for (Reference<? extends T> reference; (reference = released.poll()) != null; ) {
+            entries.remove(((Entry<?>) reference).key, reference);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.Terminal.model;
+
+// Conteúdo de um arquivo que ainda está fora do heap (ex.: no snapshot mapeado em memória). O File guarda só
+// a referência e o tamanho; o texto é lido na primeira vez que alguém precisar dele
+public interface ContentSource {
+    // Quantidade de caracteres, incluindo as quebras de linha (o mesmo que FileContent.length)
+    long length();
+
+    FileContent load();
+}
@@ -1,23 +1,55 @@
 package com.example.Terminal.model;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+// Os filhos ficam em mapas concorrentes indexados pelo nome: a busca por nome é O(log n),
+// a iteração já sai em ordem alfabética e as leituras (ls, cat, tree, find) nunca bloqueiam.
+// Cada diretório também mantém os totais da sua subárvore (bytes, arquivos e diretórios), atualizados
+// a cada alteração e propagados até a raiz, então du/stat não precisam percorrer a árvore.
+// Os TreeListener registrados na raiz são avisados de cada nó que entra, sai ou muda de nome.
+// O cp -r cria cópias preguiçosas (copy-on-write): a cópia só guarda o diretório de origem e os totais dele, e
+// os filhos são criados um nível por vez, na primeira vez que alguém olha dentro dela ou antes que a origem mude
 public class Directory {
-    private String name;
-    
+    private static final Logger log = LoggerFactory.getLogger(Directory.class);
+
+    private volatile String name;
+
+
 
+    private volatile Directory parent;
+    private final ConcurrentNavigableMap<String, Directory> subdirectories;
+    private final ConcurrentNavigableMap<String, File> files;
 
-    private Directory parent;
-    private List<Directory> subdirectories;
-    private List<File> files;
+    // Totais da subárvore (sem contar o próprio diretório), alterados só dentro de synchronized (this)
+    private volatile long totalSize;
+    private volatile long fileCount;
+    private volatile long directoryCount;
+    // Indica se os totais deste diretório estão somados aos do pai (parent continua valendo para "cd .." mesmo depois de removido)
+    private volatile boolean attached;
+    // Observadores da árvore; só são usados na raiz
+    private volatile List<TreeListener> listeners = List.of();
+    // Diretório copiado por uma cópia preguiçosa, enquanto os filhos dela ainda não foram criados (null depois)
+    private volatile Directory origin;
+    // Cópias preguiçosas que ainda dependem deste diretório (referências fracas: uma cópia descartada antes de ser
+    // expandida não fica presa aqui), alteradas só dentro de synchronized (this)
+    private volatile Set<Directory> clones;
 
     public Directory(String name, Directory parent) {
-        this.name = name;
+        // Nomes vêm do pool de Strings da JVM: os mesmos nomes em várias sessões (src, docs...) ficam uma vez só
+        this.name = name.intern();
         this.parent = parent;
-        this.subdirectories = new ArrayList<>();
-        this.files = new ArrayList<>();
+        this.subdirectories = new ConcurrentSkipListMap<>();
+        this.files = new ConcurrentSkipListMap<>();
     }
-    public void setName(String name) {
-        this.name = name;
+    // O nome é a chave no diretório pai: para renomear um filho use renameDirectory/renameFile
+    void setName(String name) {
+        this.name = name.intern();
     }
     public String getName() {
         return name;
@@ -27,43 +59,498 @@ public class Directory {
         return parent;
     }
 
-    public List<Directory> getSubdirectories() {
-        return subdirectories;
+    // Visões somente leitura, ordenadas por nome: alterações devem passar pelos métodos abaixo
+    public Collection<Directory> getSubdirectories() {
+        expand();
+        return Collections.unmodifiableCollection(subdirectories.values());
+    }
+
+    public Collection<File> getFiles() {
+        expand();
+        return Collections.unmodifiableCollection(files.values());
+    }
+
+    // Cópia da subárvore em O(1) (cp -r): nada é copiado agora, e os arquivos copiados compartilham o conteúdo
+    // até que um dos lados seja alterado. A cópia fica fora da árvore até ser adicionada a um diretório
+    public Directory lazyCopy(String name) {
+        Directory copy = new Directory(name, null);
+        copy.copyOf(this);
+        return copy;
+    }
+
+    // Faz deste diretório uma cópia preguiçosa de "source", com os totais dele. Uma cópia de outra cópia ainda não
+    // expandida aponta direto para a origem (o conteúdo é o mesmo). O diretório ainda não pode ter sido publicado,
+    // ou o chamador segura o lock dele
+    private void copyOf(Directory source) {
+        while (true) {
+            Directory next;
+            synchronized (source) {
+                next = source.origin;
+                if (next == null) {
+                    totalSize = source.totalSize;
+                    fileCount = source.fileCount;
+                    directoryCount = source.directoryCount;
+                    origin = source;
+                    if (source.clones == null) {
+                        source.clones = Collections.newSetFromMap(new WeakHashMap<>());
+                    }
+                    source.clones.add(this);
+                    return;
+                }
+            }
+            source = next;
+        }
+    }
+
+    // Troca todo o conteúdo da raiz pelo de "source" (restore de um snapshot), sem percorrer nenhuma das duas
+    // árvores: os filhos atuais saem da árvore de uma vez e a raiz vira uma cópia preguiçosa de "source". Os
+    // observadores recebem um único treeReplaced em vez de um evento por nó, e os novos nós chegam a eles
+    // conforme forem expandidos
+    public void replaceContent(Directory source) {
+        prepareWrite();
+        synchronized (this) {
+            // Se ainda era uma cópia preguiçosa, os filhos nem chegaram a ser criados
+            Directory previous = origin;
+            if (previous != null) {
+                previous.forget(this);
+            }
+            for (Directory subdir : subdirectories.values()) {
+                synchronized (subdir) {
+                    subdir.attached = false;
+                }
+            }
+            for (File file : files.values()) {
+                file.adopt(null);
+            }
+            subdirectories.clear();
+            files.clear();
+            copyOf(source);
+        }
+        fire(TreeListener::treeReplaced);
+    }
+
+    // Diretório de onde vêm os filhos: a origem de uma cópia preguiçosa ou ele mesmo. Permite ler a subárvore sem
+    // criar os nós da cópia (gravação do snapshot, comparação de snapshots), enquanto a árvore não muda
+    public Directory contentOrigin() {
+        Directory source = origin;
+        return source != null ? source : this;
+    }
+
+    // Indica se é uma cópia preguiçosa cujos filhos ainda não foram criados
+    public boolean isLazy() {
+        return origin != null;
+    }
+
+    // Cria os filhos de uma cópia preguiçosa: cada subdiretório vira outra cópia preguiçosa e cada arquivo passa
+    // a compartilhar o conteúdo com o original. Os novos nós são avisados aos observadores como se tivessem
+    // sido adicionados. Os totais já vieram da origem; se ela mudou entre a cópia e o aviso de alteração (uma
+    // escrita concorrente), a diferença para a soma dos filhos criados é repassada aos ancestrais
+    private void expand() {
+        if (origin == null) {
+            return;
+        }
+        List<Directory> addedDirectories = new ArrayList<>();
+        List<File> addedFiles = new ArrayList<>();
+        long size = 0, fileTotal = 0, directoryTotal = 0;
+        synchronized (this) {
+            Directory source = origin;
+            if (source == null) {
+                return;
+            }
+            for (Directory subdir : source.subdirectories.values()) {
+                Directory copy = subdir.lazyCopy(subdir.getName());
+                copy.parent = this;
+                copy.attached = true;
+                subdirectories.put(copy.getName(), copy);
+                addedDirectories.add(copy);
+                size += copy.totalSize;
+                fileTotal += copy.fileCount;
+                directoryTotal += copy.directoryCount + 1;
+            }
+            for (File file : source.files.values()) {
+                File copy = file.copy(file.getName());
+                copy.adopt(this);
+                files.put(copy.getName(), copy);
+                addedFiles.add(copy);
+                size += copy.length();
+                fileTotal++;
+            }
+            size -= totalSize;
+            fileTotal -= fileCount;
+            directoryTotal -= directoryCount;
+            source.forget(this);
+            origin = null;
+        }
+        Directory root = size != 0 || fileTotal != 0 || directoryTotal != 0
+                ? adjust(size, fileTotal, directoryTotal) : root();
+        if (!root.listeners.isEmpty()) {
+            addedDirectories.forEach(directory -> root.fire(listener -> listener.directoryAdded(directory)));
+            addedFiles.forEach(file -> root.fire(listener -> listener.fileAdded(file)));
+        }
+    }
+
+    private synchronized void forget(Directory clone) {
+        if (clones != null && clones.remove(clone) && clones.isEmpty()) {
+            clones = null;
+        }
+    }
+
+    // Cria todos os nós ainda não expandidos da subárvore
+    public void expandAll() {
+        Deque<Directory> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            pending.pop().getSubdirectories().forEach(pending::push);
+        }
+    }
+
+    // Chamado antes de alterar o diretório (ou um arquivo dele): as cópias preguiçosas que ainda dependem dele ou
+    // de um ancestral recebem os filhos atuais, do topo para baixo, para não enxergarem a alteração
+    void prepareWrite() {
+        Deque<Directory> path = new ArrayDeque<>();
+        for (Directory current = this; current != null; current = current.attached ? current.parent : null) {
+            path.push(current);
+        }
+        for (Directory directory : path) {
+            if (directory.clones == null) {
+                continue;
+            }
+            List<Directory> pending;
+            synchronized (directory) {
+                pending = directory.clones != null ? new ArrayList<>(directory.clones) : List.of();
+            }
+            pending.forEach(Directory::expand);
+        }
+    }
+
+    // Soma do tamanho de todos os arquivos da subárvore, em O(1)
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    // Quantidade de arquivos na subárvore, em O(1)
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    // Quantidade de diretórios na subárvore (sem contar este), em O(1)
+    public long getDirectoryCount() {
+        return directoryCount;
+    }
+
+    // Verifica se o nó ainda está neste diretório (e não foi removido ou substituído por outro com o mesmo nome)
+    public boolean contains(Directory directory) {
+        expand();
+        return subdirectories.get(directory.getName()) == directory;
+    }
+
+    public boolean contains(File file) {
+        expand();
+        return files.get(file.getName()) == file;
+    }
+
+    public synchronized void addListener(TreeListener listener) {
+        List<TreeListener> updated = new ArrayList<>(listeners);
+        updated.add(listener);
+        listeners = List.copyOf(updated);
+    }
+
+    // Raiz da árvore à qual o diretório pertence (ele mesmo, se não estiver ligado a um pai)
+    Directory root() {
+        Directory current = this;
+        while (current.attached) {
+            current = current.parent;
+        }
+        return current;
+    }
+
+    void fire(Consumer<TreeListener> event) {
+        for (TreeListener listener : listeners) {
+            event.accept(listener);
+        }
+    }
+
+    // Avisa a entrada ou saída de um diretório e de tudo o que há dentro dele
+    private void fireSubtree(Directory directory, boolean added) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        fire(listener -> {
+            if (added) listener.directoryAdded(directory); else listener.directoryRemoved(directory);
+        });
+        for (File file : directory.files.values()) {
+            fire(listener -> {
+                if (added) listener.fileAdded(file); else listener.fileRemoved(file);
+            });
+        }
+        for (Directory subdir : directory.subdirectories.values()) {
+            fireSubtree(subdir, added);
+        }
+    }
+
+    // Um nó que só mudou de lugar dentro da mesma árvore não gera eventos; entre árvores diferentes sai de uma e entra na outra
+    private void moved(Directory previous, Directory directory) {
+        Directory root = root();
+        Directory previousRoot = previous != null ? previous.root() : null;
+        if (previousRoot == root) {
+            return;
+        }
+        if (previousRoot != null) {
+            previousRoot.fireSubtree(directory, false);
+        }
+        root.fireSubtree(directory, true);
+    }
+
+    private void moved(Directory previous, File file) {
+        Directory root = root();
+        Directory previousRoot = previous != null ? previous.root() : null;
+        if (previousRoot == root) {
+            return;
+        }
+        if (previousRoot != null) {
+            previousRoot.fire(listener -> listener.fileRemoved(file));
+        }
+        root.fire(listener -> listener.fileAdded(file));
+    }
+
+    // Este diretório é "directory" ou está abaixo dele
+    public boolean isWithin(Directory directory) {
+        for (Directory current = this; current != null; current = current.getParent()) {
+            if (current == directory) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Aplica a variação aos totais deste diretório e dos ancestrais. O lock de cada nível é liberado antes de
+    // subir; como attach/detach leem os totais sob o mesmo lock, toda variação é contada no pai exatamente uma vez
+    // Retorna a raiz alcançada
+    Directory adjust(long size, long files, long directories) {
+        Directory current = this;
+        while (true) {
+            Directory next;
+            synchronized (current) {
+                current.totalSize += size;
+                current.fileCount += files;
+                current.directoryCount += directories;
+                next = current.attached ? current.parent : null;
+            }
+            if (next == null) {
+                return current;
+            }
+            current = next;
+        }
     }
 
-    public List<File> getFiles() {
-        return files;
+    // Liga os totais do diretório aos deste (tirando-os do pai anterior, se houver) e avisa os observadores.
+    // Um diretório dentro de si mesmo fecharia a cadeia de pais em um ciclo (adjust e root nunca terminariam)
+    private void attach(Directory directory) {
+        if (isWithin(directory)) {
+            throw new IllegalArgumentException("Diretório '" + directory.getName() + "' não pode ficar dentro de si mesmo");
+        }
+        long size, files, directories;
+        Directory previous;
+        synchronized (directory) {
+            previous = directory.attached ? directory.parent : null;
+            if (previous == this) {
+                return;
+            }
+            directory.parent = this;
+            directory.attached = true;
+            size = directory.totalSize;
+            files = directory.fileCount;
+            directories = directory.directoryCount;
+        }
+        if (previous != null) {
+            previous.adjust(-size, -files, -(directories + 1));
+        }
+        adjust(size, files, directories + 1);
+        moved(previous, directory);
     }
-    
 
+    private void detach(Directory directory) {
+        long size, files, directories;
+        synchronized (directory) {
+            if (!directory.attached || directory.parent != this) {
+                return;
+            }
+            directory.attached = false;
+            size = directory.totalSize;
+            files = directory.fileCount;
+            directories = directory.directoryCount;
+        }
+        adjust(-size, -files, -(directories + 1));
+        root().fireSubtree(directory, false);
+        directory.discard();
+    }
+
+    // Cópia preguiçosa removida da árvore: deixa de ser expandida a cada alteração da origem (se ainda for lida,
+    // por quem tinha feito cd nela antes do rm, mostra o conteúdo que a origem tiver nesse momento)
+    private void discard() {
+        Directory source = origin;
+        if (source != null) {
+            source.forget(this);
+        }
+    }
+
+    private void attach(File file) {
+        Directory previous = file.attachTo(this);
+        if (previous != this) {
+            moved(previous, file);
+        }
+    }
+
+    private void detach(File file) {
+        if (file.detachFrom(this)) {
+            root().fire(listener -> listener.fileRemoved(file));
+        }
+    }
+
+
+    // Adiciona (ou substitui, se já houver um com o mesmo nome) o subdiretório
     public void addDirectory(Directory directory) {
-        subdirectories.add(directory);
+        prepareWrite();
+        expand();
+        attach(directory);
+        Directory previous = subdirectories.put(directory.getName(), directory);
+        if (previous != null && previous != directory) {
+            detach(previous);
+        }
     }
 
-   
+    // Adiciona o diretório se ainda não existir um com o mesmo nome; retorna o que ficou na árvore
+    public Directory addDirectoryIfAbsent(Directory directory) {
+        prepareWrite();
+        expand();
+        if (isWithin(directory)) {
+            throw new IllegalArgumentException("Diretório '" + directory.getName() + "' não pode ficar dentro de si mesmo");
+        }
+        Directory existing = subdirectories.putIfAbsent(directory.getName(), directory);
+        if (existing != null) {
+            return existing;
+        }
+        attach(directory);
+        return directory;
+    }
+
+    public boolean removeDirectory(Directory directory) {
+        prepareWrite();
+        expand();
+        if (!subdirectories.remove(directory.getName(), directory)) {
+            return false;
+        }
+        detach(directory);
+        return true;
+    }
+
+    // Move o diretório para "target" sem gerar eventos de remoção/inclusão (o conteúdo continua na mesma árvore).
+    // Retorna false (sem mover) se o diretório não estiver aqui ou se "target" for ele mesmo ou estiver dentro dele
+    public boolean moveDirectory(Directory directory, Directory target) {
+        prepareWrite();
+        expand();
+        if (target.isWithin(directory) || !subdirectories.remove(directory.getName(), directory)) {
+            return false;
+        }
+        target.addDirectory(directory);
+        return true;
+    }
+
+    // As cópias pendentes são expandidas antes de pegar o lock, já que a expansão trava a cópia e depois a origem
+    public boolean renameDirectory(Directory directory, String newName) {
+        prepareWrite();
+        expand();
+        synchronized (this) {
+            if (subdirectories.containsKey(newName) || !subdirectories.remove(directory.getName(), directory)) {
+                return false;
+            }
+            String oldName = directory.getName();
+            directory.setName(newName);
+            subdirectories.put(directory.getName(), directory);
+            root().fire(listener -> listener.directoryRenamed(directory, oldName));
+            return true;
+        }
+    }
+
+
     public Optional<Directory> findSubdirectory(String name) {
-        return subdirectories.stream().filter(dir -> dir.getName().equals(name)).findFirst();
+        expand();
+        return Optional.ofNullable(subdirectories.get(name));
     }
 
     public Optional<File> findFile(String name) {
-        System.out.println("DEBUG: Buscando arquivo '" + name + "' no diretório '" + this.getName() + "'");
-        
-        for (File file : files) {
-            System.out.println("DEBUG: Comparando com '" + file.getName() + "'");
-            if (file.getName().trim().equals(name.trim())) {
-                System.out.println("DEBUG: Arquivo '" + name + "' encontrado!");
-                return Optional.of(file);
-            }
-        }
-    
-        System.out.println("DEBUG: Arquivo '" + name + "' NÃO encontrado.");
-        return Optional.empty();
-    }
-    
-    
-    
+        expand();
+        File file = files.get(name.trim());
+        log.debug("Arquivo '{}' {} no diretório '{}'", name, file != null ? "encontrado" : "NÃO encontrado", this.name);
+        return Optional.ofNullable(file);
+    }
+
+
+
+    // Adiciona (ou substitui, se já houver um com o mesmo nome) o arquivo
     public void addFile(File file) {
-        files.add(file);
+        prepareWrite();
+        expand();
+        attach(file);
+        File previous = files.put(file.getName(), file);
+        if (previous != null && previous != file) {
+            detach(previous);
+        }
     }
-    
-}
\ No newline at end of file
+
+    // Adiciona o arquivo se ainda não existir um com o mesmo nome; retorna o que ficou na árvore
+    public File addFileIfAbsent(File file) {
+        prepareWrite();
+        expand();
+        File existing = files.putIfAbsent(file.getName(), file);
+        if (existing != null) {
+            return existing;
+        }
+        attach(file);
+        return file;
+    }
+
+    public boolean removeFile(File file) {
+        prepareWrite();
+        expand();
+        if (!files.remove(file.getName(), file)) {
+            return false;
+        }
+        detach(file);
+        return true;
+    }
+
+    // Move o arquivo para "target" sem gerar eventos de remoção/inclusão
+    public boolean moveFile(File file, Directory target) {
+        prepareWrite();
+        expand();
+        if (!files.remove(file.getName(), file)) {
+            return false;
+        }
+        target.addFile(file);
+        return true;
+    }
+
+    public boolean renameFile(File file, String newName) {
+        prepareWrite();
+        expand();
+        synchronized (this) {
+            if (files.containsKey(newName) || !files.remove(file.getName(), file)) {
+                return false;
+            }
+            String oldName = file.getName();
+            file.setName(newName);
+            files.put(file.getName(), file);
+            root().fire(listener -> listener.fileRenamed(file, oldName));
+            return true;
+        }
+    }
+
+    // Remove todo o conteúdo do diretório
+    public void clear() {
+        expand();
+        subdirectories.values().forEach(this::removeDirectory);
+        files.values().forEach(this::removeFile);
+    }
+
+}
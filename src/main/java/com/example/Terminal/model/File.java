@@ -1,12 +1,37 @@
 package com.example.Terminal.model;
 
 public class File {
-    private String name;
-    private String content;
+    // Conteúdos escritos (echo >, unzip) e carregados de snapshots, sem repetição entre arquivos e sessões
+    private static final BlobStore<FileContent> CONTENTS = new BlobStore<>(FileContent::fingerprint, FileContent::sameLines);
+
+    // Nomes vêm do pool de Strings da JVM (também sem repetição e liberados quando ninguém mais os usa)
+    private volatile String name;
+    // Substituído por inteiro quando o arquivo é sobrescrito; acréscimos (echo >>) alteram o mesmo objeto, depois
+    // de copiá-lo se ele vier da loja de conteúdos ou de uma cópia. Fica null enquanto o conteúdo estiver só em "source"
+    private volatile FileContent content;
+    // Origem do conteúdo ainda não carregado (null depois da primeira leitura ou alteração)
+    private volatile ContentSource source;
+    // Indica que "content" também é usado por uma cópia (cp) ou está na loja de conteúdos: o próximo acréscimo
+    // copia os blocos antes de alterar
+    private volatile boolean shared;
+    // Diretório cujos totais incluem este arquivo (null fora da árvore), alterado só com o lock do arquivo
+    private volatile Directory owner;
 
     public File(String name) {
-        this.name = name;
-        this.content = "";
+        this.name = name.intern();
+        this.content = CONTENTS.intern(new FileContent(""));
+        this.shared = true;
+    }
+
+    // Arquivo cujo conteúdo só é lido de "source" quando for usado
+    public File(String name, ContentSource source) {
+        this.name = name.intern();
+        this.source = source;
+    }
+
+    // Quantidade de conteúdos diferentes em uso por todos os arquivos
+    public static int distinctContents() {
+        return CONTENTS.size();
     }
 
     public String getName() {
@@ -14,13 +39,161 @@ public class File {
     }
 
     public String getContent() {
+        return content().toString();
+    }
+
+    // Conteúdo linha a linha, para leitura sem montar o texto completo (head, tail, grep, diff)
+    public FileContent content() {
+        FileContent current = content;
+        return current != null ? current : load();
+    }
+
+    private synchronized FileContent load() {
+        if (content == null) {
+            shared = true;
+            content = CONTENTS.intern(source.load());
+            source = null;
+            Directory directory = owner;
+            if (directory != null) {
+                directory.root().fire(listener -> listener.fileLoaded(this));
+            }
+        }
         return content;
     }
 
+    // Origem do conteúdo enquanto ele não foi carregado (null se já está no heap)
+    public ContentSource unloadedContent() {
+        return source;
+    }
+
+    // Cópia com outro nome (cp), em O(1): o conteúdo é compartilhado até que um dos dois seja alterado
+    public synchronized File copy(String name) {
+        ContentSource pending = source;
+        if (pending != null) {
+            return new File(name, pending);
+        }
+        File copy = new File(name, (ContentSource) null);
+        copy.content = content;
+        copy.shared = true;
+        shared = true;
+        return copy;
+    }
+
+    // Compara o conteúdo com o de outro arquivo; cópias que nenhum dos lados alterou são reconhecidas sem ler o texto
+    public boolean sameContent(File other) {
+        if (other instanceof ArchiveFile) {
+            return false;
+        }
+        FileContent current = content;
+        ContentSource pending = source;
+        if (current != null ? current == other.content : pending != null && pending == other.source) {
+            return true;
+        }
+        return length() == other.length() && getContent().equals(other.getContent());
+    }
+
+    // Quantidade de caracteres do conteúdo, sem montá-lo (nem carregá-lo)
+    public long length() {
+        FileContent current = content;
+        if (current != null) {
+            return current.length();
+        }
+        ContentSource pending = source;
+        return pending != null ? pending.length() : content.length();
+    }
+
+    // Diretório onde o arquivo está (null se já foi removido)
+    public Directory getDirectory() {
+        return owner;
+    }
+
     public void setContent(String content) {
-        this.content = content;
+        prepareWrite();
+        synchronized (this) {
+            long before = length();
+            this.content = CONTENTS.intern(new FileContent(content));
+            this.source = null;
+            this.shared = true;
+            Directory root = resized(before);
+            if (root != null) {
+                root.fire(listener -> listener.fileWritten(this));
+            }
+        }
+    }
+
+    // Acrescenta uma linha ao final do conteúdo de forma atômica (echo >>), sem copiar o texto existente
+    // (a não ser que ele ainda seja compartilhado com uma cópia)
+    public void appendLine(String line) {
+        prepareWrite();
+        synchronized (this) {
+            long before = length();
+            FileContent current = content();
+            if (shared) {
+                current = current.copy();
+                content = current;
+                shared = false;
+            }
+            current.appendLine(line);
+            Directory root = resized(before);
+            if (root != null) {
+                root.fire(listener -> listener.fileAppended(this, line));
+            }
+        }
+    }
+
+    // Expande as cópias preguiçosas do diretório antes da alteração (fora do lock do arquivo, que a expansão usa)
+    private void prepareWrite() {
+        Directory directory = owner;
+        if (directory != null) {
+            directory.prepareWrite();
+        }
+    }
+
+    // Repassa a variação de tamanho para os totais do diretório; retorna a raiz da árvore (null fora da árvore).
+    // Os eventos são enviados ainda com o lock do arquivo, então chegam na mesma ordem das alterações
+    private Directory resized(long before) {
+        return owner != null ? owner.adjust(content.length() - before, 0, 0) : null;
+    }
+
+    // Coloca o arquivo em um diretório cujos totais já o incluem (expansão de uma cópia preguiçosa)
+    void adopt(Directory directory) {
+        owner = directory;
+    }
+
+    // Passa os totais do arquivo para o diretório; retorna o diretório anterior (null se estava fora da árvore)
+    Directory attachTo(Directory directory) {
+        long size;
+        Directory previous;
+        synchronized (this) {
+            previous = owner;
+            if (previous == directory) {
+                return previous;
+            }
+            owner = directory;
+            size = length();
+        }
+        if (previous != null) {
+            previous.adjust(-size, -1, 0);
+        }
+        directory.adjust(size, 1, 0);
+        return previous;
+    }
+
+    boolean detachFrom(Directory directory) {
+        long size;
+        synchronized (this) {
+            if (owner != directory) {
+                return false;
+            }
+            owner = null;
+            size = length();
+        }
+        directory.adjust(-size, -1, 0);
+        return true;
     }
-    public void setName(String name) {
-        this.name = name;
+
+    // O nome é a chave no diretório: para renomear use Directory.renameFile
+    void setName(String name) {
+        this.name = name.intern();
     }
 }
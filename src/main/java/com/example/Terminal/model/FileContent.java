@@ -0,0 +1,166 @@
+package com.example.Terminal.model;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Conteúdo de um arquivo guardado linha a linha em blocos de tamanho fixo: acrescentar linhas é O(1) amortizado
+// (o texto anterior nunca é copiado), head/tail acessam qualquer linha diretamente e a leitura pode ser feita
+// em streaming. Só há um escritor por vez (File sincroniza as alterações); leitores não bloqueiam e enxergam
+// sempre um prefixo completo das linhas, porque lineCount só é publicado depois que a linha foi gravada.
+public final class FileContent {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    // O primeiro bloco começa pequeno e dobra até CHUNK_SIZE: a maioria dos arquivos tem poucas linhas
+    private static final int FIRST_CHUNK_SIZE = 4;
+
+    private volatile String[][] chunks = new String[1][];
+    private volatile int lineCount;
+    private volatile long length;
+    // Conteúdo completo montado na última chamada a toString(); só vale enquanto linhas e tamanho não mudarem
+    private volatile Joined joined;
+
+    public FileContent(String text) {
+        appendLines(text);
+    }
+
+    private FileContent() {
+    }
+
+    // Cópia que pode receber acréscimos sem afetar esta: só o último bloco (o único que ainda muda) é copiado,
+    // os blocos cheios continuam compartilhados
+    FileContent copy() {
+        FileContent copy = new FileContent();
+        String[][] current = chunks;
+        int count = lineCount;
+        String[][] copied = current.clone();
+        int last = Math.max(count - 1, 0) >>> CHUNK_BITS;
+        if (copied[last] != null) {
+            copied[last] = copied[last].clone();
+        }
+        copy.chunks = copied;
+        copy.length = length;
+        copy.lineCount = count;
+        return copy;
+    }
+
+    // Acrescenta o texto em uma nova linha (equivale a conteúdo + "\n" + texto)
+    public void appendLine(String text) {
+        appendLines(text);
+    }
+
+    // Cada trecho entre quebras de linha vira uma linha nova
+    private void appendLines(String text) {
+        int start = 0;
+        while (true) {
+            int end = text.indexOf('\n', start);
+            add(end < 0 ? text.substring(start) : text.substring(start, end));
+            if (end < 0) break;
+            start = end + 1;
+        }
+    }
+
+    private void add(String line) {
+        int index = lineCount;
+        int chunk = index >>> CHUNK_BITS;
+        String[][] current = chunks;
+        if (chunk == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            chunks = current;
+        }
+        if (current[chunk] == null) {
+            current[chunk] = new String[chunk == 0 ? FIRST_CHUNK_SIZE : CHUNK_SIZE];
+        } else if ((index & CHUNK_MASK) == current[chunk].length) {
+            current[chunk] = Arrays.copyOf(current[chunk], current[chunk].length * 2);
+        }
+        current[chunk][index & CHUNK_MASK] = line;
+        length += (index > 0 ? 1 : 0) + line.length();
+        lineCount = index + 1;
+    }
+
+    // Número de linhas armazenadas (um texto vazio tem uma linha vazia)
+    public int lineCount() {
+        return lineCount;
+    }
+
+    // Número de linhas como em split("\n"): linhas vazias no final não contam
+    public int visibleLineCount() {
+        int count = lineCount;
+        if (length == 0) {
+            return count > 0 ? 1 : 0;
+        }
+        while (count > 0 && line(count - 1).isEmpty()) {
+            count--;
+        }
+        return count;
+    }
+
+    public String line(int index) {
+        if (index < 0 || index >= lineCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    // Linhas [from, to) sem montar o conteúdo completo
+    public Stream<String> lines(int from, int to) {
+        return IntStream.range(from, to).mapToObj(this::line);
+    }
+
+    public Stream<String> lines() {
+        return lines(0, lineCount);
+    }
+
+    // Quantidade de caracteres, incluindo as quebras de linha
+    public long length() {
+        return length;
+    }
+
+    // Hash das linhas e do tamanho, para a loja de conteúdos (o hash de cada String fica guardado nela mesma)
+    long fingerprint() {
+        int count = lineCount;
+        long hash = length;
+        for (int i = 0; i < count; i++) {
+            hash = (hash ^ line(i).hashCode()) * 0x9E3779B97F4A7C15L;
+        }
+        return hash ^ count;
+    }
+
+    // Mesmas linhas, na mesma ordem
+    boolean sameLines(FileContent other) {
+        int count = lineCount;
+        if (count != other.lineCount || length != other.length) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            String line = line(i);
+            String otherLine = other.line(i);
+            if (line != otherLine && !line.equals(otherLine)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        Joined cached = joined;
+        int count = lineCount;
+        long currentLength = length;
+        if (cached != null && cached.lineCount == count && cached.length == currentLength) {
+            return cached.text;
+        }
+        StringBuilder builder = new StringBuilder((int) Math.min(currentLength, Integer.MAX_VALUE - 8));
+        for (int i = 0; i < count; i++) {
+            if (i > 0) builder.append('\n');
+            builder.append(line(i));
+        }
+        String text = builder.toString();
+        joined = new Joined(count, currentLength, text);
+        return text;
+    }
+
+    private record Joined(int lineCount, long length, String text) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.Terminal.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// Diferenças entre duas versões de uma árvore (snapshot diff, diff -r). Subárvores que ainda são a mesma cópia
+// preguiçosa (ou a origem dela) são puladas sem descer e nenhuma cópia é expandida, então o custo depende só dos
+// caminhos que mudaram; arquivos que ainda compartilham o conteúdo também não são lidos
+public final class TreeDiff {
+
+    private TreeDiff() {
+    }
+
+    // Recebe as diferenças na ordem da busca recursiva. "path" é o caminho do diretório relativo às raízes
+    // comparadas ("" nas próprias raízes); um diretório inteiro que só existe de um lado é informado uma vez só
+    public interface Visitor {
+        void onlyBefore(String path, String name, boolean directory);
+
+        void onlyAfter(String path, String name, boolean directory);
+
+        void modified(String path, File before, File after);
+    }
+
+    private record Pair(Directory before, Directory after, String path) {
+    }
+
+    // Linhas "A caminho" (só em "after"), "D caminho" (só em "before") e "M caminho" (arquivo alterado); um
+    // diretório inteiro que entrou ou saiu aparece com "/" no fim
+    public static List<String> changes(Directory before, Directory after, String prefix) {
+        List<String> out = new ArrayList<>();
+        walk(before, after, new Visitor() {
+            @Override
+            public void onlyBefore(String path, String name, boolean directory) {
+                out.add("D " + join(prefix, path, name) + (directory ? "/" : ""));
+            }
+
+            @Override
+            public void onlyAfter(String path, String name, boolean directory) {
+                out.add("A " + join(prefix, path, name) + (directory ? "/" : ""));
+            }
+
+            @Override
+            public void modified(String path, File a, File b) {
+                out.add("M " + join(prefix, path, a.getName()));
+            }
+        });
+        return out;
+    }
+
+    // "raiz/caminho/nome", sem barras sobrando quando alguma parte é vazia
+    public static String join(String root, String path, String name) {
+        String directory = path.isEmpty() ? root : root.isEmpty() ? path : root + "/" + path;
+        return directory.isEmpty() ? name : directory + "/" + name;
+    }
+
+    public static void walk(Directory before, Directory after, Visitor visitor) {
+        // Pares de diretórios a comparar e avisos de diretórios inteiros, na ordem em que devem sair
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(new Pair(before, after, ""));
+        while (!stack.isEmpty()) {
+            Object next = stack.pop();
+            if (next instanceof Runnable notice) {
+                notice.run();
+                continue;
+            }
+            Pair pair = (Pair) next;
+            Directory left = pair.before().contentOrigin();
+            Directory right = pair.after().contentOrigin();
+            if (left == right) {
+                continue;
+            }
+            String path = pair.path();
+            merge(left.getFiles(), right.getFiles(), File::getName, (a, b) -> {
+                if (b == null) visitor.onlyBefore(path, a.getName(), false);
+                else if (a == null) visitor.onlyAfter(path, b.getName(), false);
+                else if (!a.sameContent(b)) visitor.modified(path, a, b);
+            });
+            List<Object> nested = new ArrayList<>();
+            merge(left.getSubdirectories(), right.getSubdirectories(), Directory::getName, (a, b) -> {
+                if (b == null) nested.add((Runnable) () -> visitor.onlyBefore(path, a.getName(), true));
+                else if (a == null) nested.add((Runnable) () -> visitor.onlyAfter(path, b.getName(), true));
+                else nested.add(new Pair(a, b, path.isEmpty() ? a.getName() : path + "/" + a.getName()));
+            });
+            for (int i = nested.size() - 1; i >= 0; i--) {
+                stack.push(nested.get(i));
+            }
+        }
+    }
+
+    // Percorre as duas coleções (ordenadas por nome) juntas; o lado que não tem o nome recebe null
+    private static <T> void merge(Collection<T> before, Collection<T> after, Function<T, String> name, BiConsumer<T, T> action) {
+        Iterator<T> left = before.iterator();
+        Iterator<T> right = after.iterator();
+        T a = left.hasNext() ? left.next() : null;
+        T b = right.hasNext() ? right.next() : null;
+        while (a != null || b != null) {
+            int order = a == null ? 1 : b == null ? -1 : name.apply(a).compareTo(name.apply(b));
+            action.accept(order <= 0 ? a : null, order >= 0 ? b : null);
+            if (order <= 0) a = left.hasNext() ? left.next() : null;
+            if (order >= 0) b = right.hasNext() ? right.next() : null;
+        }
+    }
+}
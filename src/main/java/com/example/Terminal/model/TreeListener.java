@@ -0,0 +1,41 @@
+package com.example.Terminal.model;
+
+// Observa as alterações de uma árvore de diretórios (registrado na raiz com Directory.addListener).
+// Os eventos são enviados pela thread que fez a alteração, depois que ela já está visível na árvore;
+// quando um diretório entra ou sai, cada nó da subárvore gera o seu próprio evento
+public interface TreeListener {
+
+    default void directoryAdded(Directory directory) {
+    }
+
+    default void directoryRemoved(Directory directory) {
+    }
+
+    default void directoryRenamed(Directory directory, String oldName) {
+    }
+
+    default void fileAdded(File file) {
+    }
+
+    default void fileRemoved(File file) {
+    }
+
+    default void fileRenamed(File file, String oldName) {
+    }
+
+    // Conteúdo do arquivo substituído (echo >)
+    default void fileWritten(File file) {
+    }
+
+    // Linha acrescentada ao final do arquivo (echo >>)
+    default void fileAppended(File file, String line) {
+    }
+
+    // Conteúdo que estava fora do heap (snapshot mapeado) foi lido pela primeira vez, sem ser alterado
+    default void fileLoaded(File file) {
+    }
+
+    // Todo o conteúdo da árvore foi trocado de uma vez (restore, exit), sem eventos para cada nó que saiu
+    default void treeReplaced() {
+    }
+}
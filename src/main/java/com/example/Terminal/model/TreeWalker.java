@@ -0,0 +1,137 @@
+package com.example.Terminal.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Percorre uma subárvore em profundidade (pré-ordem, filhos por nome) usando o ForkJoinPool. Subdiretórios
+// grandes viram tarefas separadas; cada tarefa escreve em pedaços (chunks) próprios e os pedaços são devolvidos
+// na ordem da travessia, então a saída é a mesma da versão sequencial. O tamanho de cada subárvore vem dos
+// totais mantidos pelo Directory, sem precisar contar os nós antes de dividir o trabalho
+public final class TreeWalker {
+    // Subárvores com menos nós que isso são percorridas na mesma tarefa
+    static final long SPLIT_THRESHOLD = 4096;
+
+    private TreeWalker() {
+    }
+
+    // Recebe cada diretório ao entrar (antes dos subdiretórios) e ao sair (depois deles). O estado S acompanha a
+    // descida (ex.: o prefixo do tree) e é copiado quando um subdiretório passa para outra tarefa
+    public interface Visitor<S, A> {
+        A newChunk();
+
+        S copy(S state);
+
+        // "last" indica se o diretório é o último subdiretório do pai; depth é 0 no diretório inicial
+        void enter(Directory dir, int depth, boolean last, S state, A out);
+
+        void exit(Directory dir, int depth, boolean last, S state, A out);
+    }
+
+    // Pedaços produzidos, na ordem da travessia
+    public static <S, A> List<A> walk(Directory start, S state, Visitor<S, A> visitor) {
+        WalkTask<S, A> task = new WalkTask<>(start, 0, true, state, visitor, null);
+        if (start.getFileCount() + start.getDirectoryCount() < SPLIT_THRESHOLD) {
+            // Árvore pequena: não compensa passar para o pool
+            return task.compute();
+        }
+        return ForkJoinPool.commonPool().invoke(task);
+    }
+
+    // Percorre na thread atual escrevendo tudo em "out", na ordem (usado quando a saída vai direto para o cliente)
+    public static <S, A> void walk(Directory start, S state, Visitor<S, A> visitor, A out) {
+        new WalkTask<>(start, 0, true, state, visitor, out).compute();
+    }
+
+    // Só roda no ForkJoinPool e nunca é serializada
+    @SuppressWarnings("serial")
+    private static final class WalkTask<S, A> extends RecursiveTask<List<A>> {
+        private final Directory start;
+        private final int depth;
+        private final boolean last;
+        private final S state;
+        private final Visitor<S, A> visitor;
+        // Destino único de uma travessia sequencial (null quando a saída é dividida em pedaços)
+        private final A target;
+
+        WalkTask(Directory start, int depth, boolean last, S state, Visitor<S, A> visitor, A target) {
+            this.start = start;
+            this.depth = depth;
+            this.last = last;
+            this.state = state;
+            this.visitor = visitor;
+            this.target = target;
+        }
+
+        // Diretório em andamento na pilha (a travessia é iterativa para aguentar cadeias muito profundas)
+        private static final class Frame {
+            final Directory dir;
+            final int depth;
+            final boolean last;
+            final List<Directory> children;
+            int next;
+
+            Frame(Directory dir, int depth, boolean last) {
+                this.dir = dir;
+                this.depth = depth;
+                this.last = last;
+                this.children = new ArrayList<>(dir.getSubdirectories());
+            }
+        }
+
+        @Override
+        protected List<A> compute() {
+            // Pedaços escritos por esta tarefa intercalados com as tarefas filhas, na ordem da travessia
+            List<Object> parts = new ArrayList<>();
+            A out = target != null ? target : visitor.newChunk();
+            parts.add(out);
+
+            Deque<Frame> stack = new ArrayDeque<>();
+            visitor.enter(start, depth, last, state, out);
+            stack.push(new Frame(start, depth, last));
+
+            while (!stack.isEmpty()) {
+                Frame frame = stack.peek();
+                int index = frame.next;
+                if (index == frame.children.size()) {
+                    visitor.exit(frame.dir, frame.depth, frame.last, state, out);
+                    stack.pop();
+                    continue;
+                }
+                frame.next++;
+                Directory child = frame.children.get(index);
+                boolean lastChild = index == frame.children.size() - 1;
+
+                // Só divide quando há irmãos para dividir o trabalho; uma cadeia de um filho só segue aqui mesmo
+                if (target == null && frame.children.size() > 1
+                        && child.getFileCount() + child.getDirectoryCount() >= SPLIT_THRESHOLD) {
+                    WalkTask<S, A> task = new WalkTask<>(child, frame.depth + 1, lastChild, visitor.copy(state), visitor, null);
+                    task.fork();
+                    parts.add(task);
+                    out = visitor.newChunk();
+                    parts.add(out);
+                    continue;
+                }
+                visitor.enter(child, frame.depth + 1, lastChild, state, out);
+                stack.push(new Frame(child, frame.depth + 1, lastChild));
+            }
+
+            List<A> chunks = new ArrayList<>();
+            for (Object part : parts) {
+                if (part instanceof WalkTask<?, ?> task) {
+                    @SuppressWarnings("unchecked")
+                    List<A> result = (List<A>) task.join();
+                    chunks.addAll(result);
+                } else {
+                    @SuppressWarnings("unchecked")
+                    A chunk = (A) part;
+                    chunks.add(chunk);
+                }
+            }
+            return chunks;
+        }
+    }
+}
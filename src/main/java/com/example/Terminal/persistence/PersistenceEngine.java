@@ -0,0 +1,201 @@
+package com.example.Terminal.persistence;
+
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.File;
+import com.example.Terminal.service.CommandJournal;
+import com.example.Terminal.service.SessionRegistry;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+// Persistência das sessões: cada comando que altera a árvore é gravado no log (WriteAheadLog) antes de a resposta
+// voltar ao cliente, e de tempos em tempos o estado completo vai para um snapshot, o que permite apagar o log
+// antigo. Na inicialização o snapshot mais recente é carregado e os comandos posteriores são executados de novo.
+// Histórico e "cd" não são gravados: cada registro leva o diretório atual em que o comando foi executado
+@Component
+@ConditionalOnProperty(name = "terminal.persistence.enabled", havingValue = "true")
+public class PersistenceEngine implements CommandJournal, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PersistenceEngine.class);
+
+    private final TerminalService terminalService;
+    private final SessionRegistry sessionRegistry;
+    private final Path directory;
+    private final boolean fsync;
+    private WriteAheadLog wal;
+    // LSN do último snapshot gravado (ou carregado)
+    private volatile long snapshotLsn;
+
+    public PersistenceEngine(TerminalService terminalService, SessionRegistry sessionRegistry,
+                             @Value("${terminal.persistence.directory:data}") String directory,
+                             @Value("${terminal.persistence.fsync:true}") boolean fsync) {
+        this.terminalService = terminalService;
+        this.sessionRegistry = sessionRegistry;
+        this.directory = Path.of(directory);
+        this.fsync = fsync;
+    }
+
+    // Carrega o snapshot, reaplica o log e só então passa a gravar os novos comandos
+    @PostConstruct
+    public void recover() throws IOException {
+        Files.createDirectories(directory);
+        long start = System.nanoTime();
+
+        Map<String, Long> applied = new HashMap<>();
+        Optional<Path> latest = Snapshot.latest(directory);
+        if (latest.isPresent()) {
+            snapshotLsn = Snapshot.lsn(latest.get());
+            for (Snapshot.SessionState state : Snapshot.read(latest.get())) {
+                restore(state);
+                applied.put(state.id(), state.lsn());
+            }
+        }
+
+        int[] replayed = {0};
+        long lastLsn = WriteAheadLog.replay(directory, entry -> {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry.payload()));
+            String id = Snapshot.readString(in);
+            if (entry.lsn() <= applied.getOrDefault(id, snapshotLsn)) {
+                return;
+            }
+            List<String> cwd = Snapshot.readNames(in);
+            String command = Snapshot.readString(in);
+            TerminalSession session = sessionRegistry.restore(id);
+            session.setCurrentDirectory(resolve(session.getRoot(), cwd));
+            terminalService.executeCommand(session, command);
+            replayed[0]++;
+        });
+        // Os comandos reaplicados não fazem parte do histórico visível
+        sessionRegistry.getSessions().forEach(session -> session.getCommandHistory().clear());
+
+        wal = new WriteAheadLog(directory, Math.max(lastLsn, snapshotLsn), fsync);
+        terminalService.setJournal(this);
+        log.info("Persistência: {} sessões recuperadas ({} comandos do log) em {} ms", sessionRegistry.size(),
+                replayed[0], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void restore(Snapshot.SessionState state) {
+        TerminalSession session = sessionRegistry.restore(state.id());
+        Directory root = session.getRoot();
+        // Os filhos passam da raiz lida para a raiz da sessão, que avisa os índices
+        for (Directory subdir : new ArrayList<>(state.root().getSubdirectories())) {
+            state.root().moveDirectory(subdir, root);
+        }
+        for (File file : new ArrayList<>(state.root().getFiles())) {
+            state.root().moveFile(file, root);
+        }
+        session.getPermissions().putAll(state.permissions());
+        session.getSnapshots().putAll(state.snapshots());
+        session.setCurrentDirectory(resolve(root, state.cwd()));
+    }
+
+    // Diretório pelos nomes a partir da raiz; se algum não existir mais, fica no último encontrado
+    private static Directory resolve(Directory root, List<String> names) {
+        Directory current = root;
+        for (String name : names) {
+            Optional<Directory> next = current.findSubdirectory(name);
+            if (next.isEmpty()) {
+                break;
+            }
+            current = next.get();
+        }
+        return current;
+    }
+
+    // Executa e grava com o lock exclusivo da sessão, então a ordem no log é a ordem em que os comandos da sessão
+    // foram aplicados; a espera pelo disco é feita depois de soltar o lock, junto com os comandos das outras sessões
+    @Override
+    public <T> T write(TerminalSession session, String command, Supplier<T> execution) {
+        long lsn;
+        T result;
+        Lock lock = session.getStateLock().writeLock();
+        lock.lock();
+        try {
+            wal.ensureWritable();
+            List<String> cwd = Snapshot.path(session.getCurrentDirectory());
+            result = execution.get();
+            lsn = wal.append(record(session.getId(), cwd, command));
+        } finally {
+            lock.unlock();
+        }
+        try {
+            wal.sync(lsn);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o log de comandos", e);
+        }
+        return result;
+    }
+
+    private static byte[] record(String session, List<String> cwd, String command) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + command.length());
+            DataOutputStream out = new DataOutputStream(bytes);
+            Snapshot.writeString(out, session);
+            Snapshot.writeNames(out, cwd);
+            Snapshot.writeString(out, command);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Grava todas as sessões em um snapshot novo e apaga o log e os snapshots que ele substitui
+    @Scheduled(fixedDelayString = "${terminal.persistence.snapshot-interval-ms:300000}")
+    public synchronized void snapshot() throws IOException {
+        if (wal == null || wal.lastLsn() == snapshotLsn) {
+            return;
+        }
+        long start = System.nanoTime();
+        // Os registros até aqui ficam nos segmentos antigos; os seguintes já vão para um segmento novo
+        long lsn = wal.rotate();
+        Set<Long> mapped;
+        try (Snapshot.Writer writer = Snapshot.create(directory, lsn)) {
+            for (TerminalSession session : sessionRegistry.getSessions()) {
+                Lock lock = session.getStateLock().readLock();
+                lock.lock();
+                try {
+                    // Nenhum comando da sessão está em andamento: tudo dela até este LSN já foi aplicado
+                    writer.write(session, wal.lastLsn());
+                } finally {
+                    lock.unlock();
+                }
+            }
+            writer.commit();
+            mapped = writer.mappedSnapshots();
+        }
+        snapshotLsn = lsn;
+        // O log já está no snapshot novo: uma falha ao apagar os snapshots antigos não pode impedir a limpeza dele
+        try {
+            Snapshot.deleteOlderThan(directory, lsn, mapped);
+        } catch (IOException e) {
+            log.warn("Persistência: snapshot antigo não apagado, nova tentativa no próximo snapshot", e);
+        }
+        wal.deleteUpTo(lsn);
+        log.info("Persistência: snapshot até o LSN {} gravado em {} ms", lsn, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (wal != null) {
+            terminalService.setJournal(CommandJournal.NONE);
+            wal.close();
+        }
+    }
+}
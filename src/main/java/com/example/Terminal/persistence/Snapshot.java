@@ -0,0 +1,566 @@
+package com.example.Terminal.persistence;
+
+import com.example.Terminal.model.ArchiveFile;
+import com.example.Terminal.model.ContentSource;
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.File;
+import com.example.Terminal.model.FileContent;
+import com.example.Terminal.service.TerminalSession;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+// Cópia completa das sessões em "snapshot-<LSN>.bin": tudo o que está no log até esse LSN já está no arquivo.
+// Cada sessão guarda também o próprio LSN (o último registro aplicado a ela quando foi gravada), porque as
+// sessões são gravadas uma de cada vez enquanto os comandos continuam chegando.
+// Formato: cabeçalho, conteúdo dos arquivos (UTF-8, um após o outro; um conteúdo compartilhado é gravado uma vez
+// só), tabela de nomes sem repetição, tabela de nós de tamanho fixo (pré-ordem), sessões (com a árvore e os
+// snapshots nomeados de cada uma) e, no fim, um rodapé com a posição de cada parte. Na leitura o arquivo é
+// mapeado em memória: a árvore é montada a partir das tabelas e o conteúdo de cada arquivo só é decodificado
+// quando for usado (ContentSource), então só o que for tocado entra no heap
+final class Snapshot {
+    private static final int MAGIC = 0x54524d53;
+    private static final int VERSION = 3;
+    // Versão anterior, sem os snapshots nomeados das sessões; ainda pode ser lida
+    private static final int VERSION_WITHOUT_NAMED = 2;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    // Magic, versão e LSN; o conteúdo dos arquivos começa logo depois
+    private static final int HEADER_BYTES = 4 + 4 + 8;
+    // Posições dos nomes, dos nós e das sessões, mais o magic de novo (arquivo completo)
+    private static final int TRAILER_BYTES = 8 + 8 + 8 + 4;
+    // Tipo, nome, e três números: quantidade de arquivos e de subdiretórios (diretório) ou posição, bytes e
+    // caracteres do conteúdo (arquivo)
+    private static final int NODE_BYTES = 4 + 4 + 8 + 8 + 8;
+    private static final int DIRECTORY = 0;
+    private static final int FILE = 1;
+    // Arquivo compactado: os bytes do bloco vão como estão e voltam como ArchiveFile com uma cópia deles no heap
+    // (um ArchiveFile nunca solta os bytes, e sobre o mapeamento prenderia o snapshot para sempre)
+    private static final int ARCHIVE = 2;
+    // O conteúdo é mapeado em janelas deste tamanho (um MappedByteBuffer tem no máximo 2 GB); um arquivo menor
+    // que a janela nunca fica dividido entre duas
+    static final long WINDOW = 1L << 30;
+
+    // Sessão lida do arquivo, com a árvore ainda fora da sessão
+    record SessionState(String id, long lsn, List<String> cwd, Map<String, String> permissions, Directory root,
+                        Map<String, Directory> snapshots) {
+    }
+
+    private Snapshot() {
+    }
+
+    // Abre a gravação de um snapshot; o arquivo só aparece com o nome definitivo em Writer.commit
+    static Writer create(Path directory, long lsn) throws IOException {
+        return new Writer(directory, lsn);
+    }
+
+    static final class Writer implements Closeable {
+        private final Path target;
+        private final Path temp;
+        private final FileOutputStream file;
+        private final DataOutputStream out;
+        // Bytes gravados desde o início do conteúdo
+        private long blobPosition;
+        private final Map<String, Integer> names = new HashMap<>();
+        private final List<String> nameTable = new ArrayList<>();
+        private final ByteArrayOutputStream nodeBytes = new ByteArrayOutputStream();
+        private final DataOutputStream nodes = new DataOutputStream(nodeBytes);
+        private int nodeCount;
+        private final ByteArrayOutputStream sessionBytes = new ByteArrayOutputStream();
+        private final DataOutputStream sessions = new DataOutputStream(sessionBytes);
+        private int sessionCount;
+        private boolean committed;
+        // Conteúdos já gravados (posição, bytes e caracteres), pela identidade: arquivos que compartilham o
+        // conteúdo (cp, loja de conteúdos, snapshot anterior) apontam para o mesmo trecho, em qualquer sessão.
+        // Só conteúdos compartilhados podem aparecer duas vezes, e esses não mudam mais
+        private final Map<Object, long[]> written = new IdentityHashMap<>();
+        // LSN dos snapshots anteriores que ainda têm conteúdo não carregado em algum arquivo
+        private final Set<Long> mapped = new HashSet<>();
+
+        private Writer(Path directory, long lsn) throws IOException {
+            this.target = directory.resolve(String.format("%s%020d%s", PREFIX, lsn, SUFFIX));
+            this.temp = directory.resolve(target.getFileName() + ".tmp");
+            this.file = new FileOutputStream(temp.toFile());
+            this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lsn);
+        }
+
+        // Grava a sessão; o chamador garante que ela não muda durante a gravação
+        void write(TerminalSession session, long lsn) throws IOException {
+            sessionCount++;
+            writeString(sessions, session.getId());
+            sessions.writeLong(lsn);
+            List<String> cwd = path(session.getCurrentDirectory());
+            sessions.writeInt(cwd.size());
+            for (String name : cwd) {
+                sessions.writeInt(name(name));
+            }
+            Map<String, String> permissions = new TreeMap<>(session.getPermissions());
+            sessions.writeInt(permissions.size());
+            for (Map.Entry<String, String> entry : permissions.entrySet()) {
+                sessions.writeInt(name(entry.getKey()));
+                sessions.writeInt(name(entry.getValue()));
+            }
+            sessions.writeInt(nodeCount);
+            writeTree(session.getRoot());
+            Map<String, Directory> snapshots = new TreeMap<>(session.getSnapshots());
+            sessions.writeInt(snapshots.size());
+            for (Map.Entry<String, Directory> entry : snapshots.entrySet()) {
+                sessions.writeInt(name(entry.getKey()));
+                sessions.writeInt(nodeCount);
+                writeTree(entry.getValue());
+            }
+        }
+
+        private int name(String name) {
+            Integer id = names.get(name);
+            if (id == null) {
+                id = nameTable.size();
+                names.put(name, id);
+                nameTable.add(name);
+            }
+            return id;
+        }
+
+        // Cópias preguiçosas (cp -r, snapshots nomeados) são gravadas a partir da origem, sem criar os nós delas
+        private void writeTree(Directory root) throws IOException {
+            Deque<Directory> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Directory dir = stack.pop();
+                Directory source = dir.contentOrigin();
+                List<File> files = new ArrayList<>(source.getFiles());
+                List<Directory> subdirs = new ArrayList<>(source.getSubdirectories());
+                node(DIRECTORY, dir.getName(), files.size(), subdirs.size(), 0);
+                for (File file : files) {
+                    writeContent(file);
+                }
+                for (int i = subdirs.size() - 1; i >= 0; i--) {
+                    stack.push(subdirs.get(i));
+                }
+            }
+        }
+
+        private void node(int kind, String name, long a, long b, long c) throws IOException {
+            nodeCount++;
+            nodes.writeInt(kind);
+            nodes.writeInt(name(name));
+            nodes.writeLong(a);
+            nodes.writeLong(b);
+            nodes.writeLong(c);
+        }
+
+        // Conteúdo ainda mapeado de um snapshot anterior é copiado em bytes, sem ser decodificado
+        private void writeContent(File file) throws IOException {
+            if (file instanceof ArchiveFile archive) {
+                writeBytes(ARCHIVE, file.getName(), archive.data(), archive.length());
+                return;
+            }
+            ContentSource source = file.unloadedContent();
+            if (source instanceof MappedContent pending) {
+                mapped.add(pending.snapshotLsn());
+            }
+            FileContent content = source instanceof MappedContent ? null : file.content();
+            Object key = content != null ? content : source;
+            long[] previous = written.get(key);
+            if (previous != null) {
+                node(FILE, file.getName(), previous[0], previous[1], previous[2]);
+                return;
+            }
+            if (source instanceof MappedContent mapped) {
+                long start = writeBytes(FILE, file.getName(), mapped.bytes(), mapped.length());
+                written.put(key, new long[] {start, blobPosition - start, mapped.length()});
+                return;
+            }
+
+            int lines = content.lineCount();
+            long size = Math.max(lines - 1, 0);
+            for (int i = 0; i < lines; i++) {
+                size += utf8Length(content.line(i));
+            }
+            align(size);
+            written.put(key, new long[] {blobPosition, size, content.length()});
+            node(FILE, file.getName(), blobPosition, size, content.length());
+            for (int i = 0; i < lines; i++) {
+                if (i > 0) {
+                    out.write('\n');
+                }
+                out.write(content.line(i).getBytes(StandardCharsets.UTF_8));
+            }
+            blobPosition += size;
+        }
+
+        // Retorna a posição onde os bytes começam
+        private long writeBytes(int kind, String name, ByteBuffer bytes, long length) throws IOException {
+            align(bytes.remaining());
+            long start = blobPosition;
+            node(kind, name, blobPosition, bytes.remaining(), length);
+            byte[] buffer = new byte[Math.min(bytes.remaining(), 1 << 16)];
+            while (bytes.hasRemaining()) {
+                int count = Math.min(buffer.length, bytes.remaining());
+                bytes.get(buffer, 0, count);
+                out.write(buffer, 0, count);
+                blobPosition += count;
+            }
+            return start;
+        }
+
+        // Um conteúdo que caberia em uma janela passa para o início da próxima em vez de ficar dividido
+        private void align(long size) throws IOException {
+            long used = blobPosition % WINDOW;
+            if (size <= WINDOW && used + size > WINDOW) {
+                for (long i = used; i < WINDOW; i++) {
+                    out.write(0);
+                }
+                blobPosition += WINDOW - used;
+            }
+        }
+
+        // Snapshots que não podem ser apagados: arquivos gravados neste ainda leem o conteúdo do mapeamento deles
+        Set<Long> mappedSnapshots() {
+            return mapped;
+        }
+
+        // Grava as tabelas, força a gravação no disco e troca o nome (o snapshot anterior continua válido até aqui)
+        void commit() throws IOException {
+            long namesOffset = HEADER_BYTES + blobPosition;
+            out.writeInt(nameTable.size());
+            long position = namesOffset + 4;
+            for (String name : nameTable) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                position += 4 + bytes.length;
+            }
+            long nodesOffset = position;
+            out.writeInt(nodeCount);
+            nodeBytes.writeTo(out);
+            long sessionsOffset = nodesOffset + 4 + nodeBytes.size();
+            out.writeInt(sessionCount);
+            sessionBytes.writeTo(out);
+            out.writeLong(namesOffset);
+            out.writeLong(nodesOffset);
+            out.writeLong(sessionsOffset);
+            out.writeInt(MAGIC);
+
+            out.flush();
+            file.getFD().sync();
+            out.close();
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel dir = FileChannel.open(target.getParent(), StandardOpenOption.READ)) {
+                dir.force(true);
+            } catch (IOException e) {
+                // Nem todo sistema permite sincronizar diretórios; o rename já foi feito
+            }
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    // Bytes do texto em UTF-8, sem codificá-lo (mesma contagem de String.getBytes: surrogate sozinho vira '?')
+    static long utf8Length(String text) {
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    // Conteúdo de um arquivo dentro do snapshot mapeado
+    static final class MappedContent implements ContentSource {
+        private final long snapshotLsn;
+        private final ByteBuffer bytes;
+        private final long length;
+
+        MappedContent(long snapshotLsn, ByteBuffer bytes, long length) {
+            this.snapshotLsn = snapshotLsn;
+            this.bytes = bytes;
+            this.length = length;
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public FileContent load() {
+            return new FileContent(StandardCharsets.UTF_8.decode(bytes()).toString());
+        }
+
+        ByteBuffer bytes() {
+            return bytes.duplicate();
+        }
+
+        // Snapshot de onde o conteúdo vem
+        long snapshotLsn() {
+            return snapshotLsn;
+        }
+    }
+
+    // Snapshot mais recente da pasta, se houver
+    static Optional<Path> latest(Path directory) throws IOException {
+        return list(directory).stream().max(Comparator.comparingLong(Snapshot::lsn));
+    }
+
+    // Apaga os snapshots anteriores a "lsn", menos os de "inUse" (ainda mapeados por arquivos não carregados: no
+    // Windows um arquivo mapeado não pode ser apagado), e as gravações que não chegaram ao fim. Uma falha não
+    // interrompe as outras remoções: a primeira é lançada no fim, e o que ficou é apagado no próximo snapshot
+    static void deleteOlderThan(Path directory, long lsn, Set<Long> inUse) throws IOException {
+        List<Path> targets = new ArrayList<>();
+        for (Path snapshot : list(directory)) {
+            if (lsn(snapshot) < lsn && !inUse.contains(lsn(snapshot))) {
+                targets.add(snapshot);
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SUFFIX + ".tmp")).forEach(targets::add);
+        }
+        IOException failure = null;
+        for (Path target : targets) {
+            try {
+                Files.deleteIfExists(target);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    static long lsn(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(PREFIX)
+                    && file.getFileName().toString().endsWith(SUFFIX)).toList();
+        }
+    }
+
+    // Lê todas as sessões do arquivo, na ordem em que foram gravadas; o conteúdo dos arquivos fica no mapeamento
+    static List<SessionState> read(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+            if (size < HEADER_BYTES + TRAILER_BYTES || channel.read(header, 0) < HEADER_BYTES
+                    || channel.read(trailer, size - TRAILER_BYTES) < TRAILER_BYTES
+                    || header.getInt(0) != MAGIC || header.getInt(4) < VERSION_WITHOUT_NAMED || header.getInt(4) > VERSION
+                    || trailer.getInt(24) != MAGIC) {
+                throw new IOException("Snapshot em formato desconhecido ou incompleto: " + snapshot);
+            }
+            boolean named = header.getInt(4) > VERSION_WITHOUT_NAMED;
+            long namesOffset = trailer.getLong(0);
+            long nodesOffset = trailer.getLong(8);
+            long sessionsOffset = trailer.getLong(16);
+            if (size - TRAILER_BYTES - namesOffset > Integer.MAX_VALUE) {
+                throw new IOException("Tabelas do snapshot maiores que 2 GB: " + snapshot);
+            }
+            MappedByteBuffer tables = channel.map(FileChannel.MapMode.READ_ONLY, namesOffset, size - TRAILER_BYTES - namesOffset);
+
+            String[] names = new String[tables.getInt(0)];
+            int position = 4;
+            for (int i = 0; i < names.length; i++) {
+                int length = tables.getInt(position);
+                byte[] bytes = new byte[length];
+                tables.get(position + 4, bytes);
+                names[i] = new String(bytes, StandardCharsets.UTF_8);
+                position += 4 + length;
+            }
+
+            Blob blob = new Blob(channel, header.getLong(8), namesOffset - HEADER_BYTES);
+            ByteBuffer nodes = tables.slice((int) (nodesOffset - namesOffset) + 4, NODE_BYTES * tables.getInt((int) (nodesOffset - namesOffset)));
+            ByteBuffer sessions = tables.slice((int) (sessionsOffset - namesOffset), (int) (size - TRAILER_BYTES - sessionsOffset));
+
+            List<SessionState> result = new ArrayList<>();
+            for (int count = sessions.getInt(); count > 0; count--) {
+                String id = readString(sessions);
+                long lsn = sessions.getLong();
+                List<String> cwd = new ArrayList<>();
+                for (int i = sessions.getInt(); i > 0; i--) {
+                    cwd.add(names[sessions.getInt()]);
+                }
+                Map<String, String> permissions = new HashMap<>();
+                for (int i = sessions.getInt(); i > 0; i--) {
+                    permissions.put(names[sessions.getInt()], names[sessions.getInt()]);
+                }
+                Directory root = readTree(nodes, sessions.getInt(), names, blob);
+                Map<String, Directory> snapshots = new HashMap<>();
+                for (int i = named ? sessions.getInt() : 0; i > 0; i--) {
+                    String name = names[sessions.getInt()];
+                    snapshots.put(name, readTree(nodes, sessions.getInt(), names, blob));
+                }
+                result.add(new SessionState(id, lsn, cwd, permissions, root, snapshots));
+            }
+            return result;
+        }
+    }
+
+    // Conteúdo dos arquivos mapeado em janelas de WINDOW bytes; arquivos maiores que a janela têm mapeamento próprio
+    private static final class Blob {
+        private final FileChannel channel;
+        private final long lsn;
+        private final MappedByteBuffer[] windows;
+        // Arquivos gravados com o mesmo trecho (conteúdo compartilhado) voltam com a mesma origem, e continuam
+        // compartilhando o conteúdo depois de carregado
+        private final Map<List<Long>, MappedContent> contents = new HashMap<>();
+
+        Blob(FileChannel channel, long lsn, long length) throws IOException {
+            this.channel = channel;
+            this.lsn = lsn;
+            this.windows = new MappedByteBuffer[(int) ((length + WINDOW - 1) / WINDOW)];
+            for (int i = 0; i < windows.length; i++) {
+                long start = i * WINDOW;
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + start, Math.min(WINDOW, length - start));
+            }
+        }
+
+        MappedContent content(long offset, long bytes, long length) throws IOException {
+            List<Long> key = List.of(offset, bytes);
+            MappedContent content = contents.get(key);
+            if (content == null) {
+                content = new MappedContent(lsn, slice(offset, bytes), length);
+                contents.put(key, content);
+            }
+            return content;
+        }
+
+        // Bytes do trecho copiados para fora do mapeamento
+        ByteBuffer copy(long offset, long bytes) throws IOException {
+            ByteBuffer source = slice(offset, bytes);
+            return ByteBuffer.allocate(source.remaining()).put(source).flip().asReadOnlyBuffer();
+        }
+
+        ByteBuffer slice(long offset, long bytes) throws IOException {
+            if (bytes > WINDOW) {
+                if (bytes > Integer.MAX_VALUE) {
+                    throw new IOException("Arquivo maior que 2 GB no snapshot");
+                }
+                return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + offset, bytes);
+            }
+            if (bytes == 0) {
+                return ByteBuffer.allocate(0);
+            }
+            return windows[(int) (offset / WINDOW)].slice((int) (offset % WINDOW), (int) bytes);
+        }
+    }
+
+    // Diretório em montagem e quantos subdiretórios ainda faltam ler
+    private record Pending(Directory dir, int[] remaining) {
+    }
+
+    // Monta a árvore a partir do nó "index" sem recursão; cada diretório só é ligado ao pai depois de completo,
+    // então a montagem não sobe até a raiz a cada nó
+    private static Directory readTree(ByteBuffer nodes, int index, String[] names, Blob blob) throws IOException {
+        Deque<Pending> stack = new ArrayDeque<>();
+        do {
+            int at = index++ * NODE_BYTES;
+            if (nodes.getInt(at) != DIRECTORY) {
+                throw new IOException("Tabela de nós do snapshot inválida na posição " + (index - 1));
+            }
+            Directory dir = new Directory(names[nodes.getInt(at + 4)], null);
+            long files = nodes.getLong(at + 8);
+            for (long i = 0; i < files; i++) {
+                int node = index++ * NODE_BYTES;
+                long offset = nodes.getLong(node + 8);
+                long bytes = nodes.getLong(node + 16);
+                String name = names[nodes.getInt(node + 4)];
+                dir.addFile(nodes.getInt(node) == ARCHIVE ? new ArchiveFile(name, blob.copy(offset, bytes))
+                        : new File(name, blob.content(offset, bytes, nodes.getLong(node + 24))));
+            }
+            stack.push(new Pending(dir, new int[] {(int) nodes.getLong(at + 16)}));
+            // Liga ao pai os diretórios que já receberam todos os subdiretórios
+            while (stack.peek().remaining()[0] == 0) {
+                Directory done = stack.pop().dir();
+                if (stack.isEmpty()) {
+                    return done;
+                }
+                stack.peek().dir().addDirectory(done);
+                stack.peek().remaining()[0]--;
+            }
+        } while (true);
+    }
+
+    // Nomes dos diretórios da raiz (exclusive) até "dir"
+    static List<String> path(Directory dir) {
+        List<String> names = new ArrayList<>();
+        for (Directory current = dir; current != null && current.getParent() != null; current = current.getParent()) {
+            names.add(current.getName());
+        }
+        Collections.reverse(names);
+        return names;
+    }
+
+    static void writeNames(DataOutputStream out, List<String> names) throws IOException {
+        out.writeInt(names.size());
+        for (String name : names) {
+            writeString(out, name);
+        }
+    }
+
+    static List<String> readNames(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(readString(in));
+        }
+        return names;
+    }
+
+    // Texto como tamanho em bytes + UTF-8 (writeUTF não aceita mais de 64 KB)
+    static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.Terminal.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Log dos comandos em segmentos "wal-<primeiro LSN>.log". Cada registro tem tamanho, CRC32, LSN e conteúdo; na
+// leitura, um registro incompleto ou corrompido (queda no meio da gravação) encerra aquele segmento.
+// append só copia o registro para a memória; sync grava e faz o fsync de tudo o que foi acumulado (group commit):
+// enquanto um fsync está em andamento os registros seguintes se acumulam e saem juntos no próximo, feito pela
+// primeira thread que precisar deles. Uma falha de gravação desativa o log: o segmento pode ter ficado com um
+// registro pela metade, e o lote perdido deixaria um buraco nos LSNs; nada mais é aceito até o próximo reinício
+final class WriteAheadLog implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+    // Tamanho, CRC e LSN antes do conteúdo
+    private static final int HEADER_BYTES = 4 + 4 + 8;
+
+    private final Path directory;
+    private final boolean fsync;
+    private final Object lock = new Object();
+    // Registros ainda não gravados no arquivo
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private FileChannel channel;
+    private long lastLsn;
+    private long durableLsn;
+    private boolean flushing;
+    // Primeira falha de gravação (null enquanto o log estiver funcionando)
+    private IOException failure;
+
+    // Abre um segmento novo depois de "lastLsn" (o segmento anterior pode terminar com um registro incompleto)
+    WriteAheadLog(Path directory, long lastLsn, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.lastLsn = lastLsn;
+        this.durableLsn = lastLsn;
+        this.channel = openSegment(lastLsn + 1);
+    }
+
+    private FileChannel openSegment(long firstLsn) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, firstLsn, SUFFIX));
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // Recusa novos comandos depois de uma falha de gravação, antes que eles alterem a árvore
+    void ensureWritable() {
+        synchronized (lock) {
+            if (failure != null) {
+                throw new UncheckedIOException(failed());
+            }
+        }
+    }
+
+    private IOException failed() {
+        return new IOException("Log de comandos desativado depois de uma falha de gravação", failure);
+    }
+
+    // Acrescenta o registro na memória e devolve o LSN dele; só fica durável depois de sync(lsn)
+    long append(byte[] payload) {
+        synchronized (lock) {
+            if (failure != null) {
+                throw new UncheckedIOException(failed());
+            }
+            long lsn = ++lastLsn;
+            CRC32 crc = new CRC32();
+            crc.update(ByteBuffer.allocate(8).putLong(0, lsn));
+            crc.update(payload);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(payload.length).putInt((int) crc.getValue()).putLong(lsn);
+            pending.write(header.array(), 0, HEADER_BYTES);
+            pending.write(payload, 0, payload.length);
+            return lsn;
+        }
+    }
+
+    long lastLsn() {
+        synchronized (lock) {
+            return lastLsn;
+        }
+    }
+
+    // Espera o registro "lsn" estar no disco. Se ninguém estiver gravando, esta thread grava tudo o que está pendente
+    void sync(long lsn) throws IOException {
+        byte[] batch;
+        long batchLsn;
+        synchronized (lock) {
+            while (durableLsn < lsn && flushing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrompido esperando o log de comandos");
+                }
+            }
+            if (durableLsn >= lsn) {
+                return;
+            }
+            if (failure != null) {
+                throw failed();
+            }
+            flushing = true;
+            batch = pending.toByteArray();
+            pending = new ByteArrayOutputStream(Math.max(batch.length, 256));
+            batchLsn = lastLsn;
+        }
+
+        Exception error = null;
+        try {
+            write(channel, batch);
+        } catch (IOException | RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            synchronized (lock) {
+                flushing = false;
+                if (error == null) {
+                    durableLsn = batchLsn;
+                } else {
+                    failure = error instanceof IOException io ? io : new IOException(error);
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void write(FileChannel target, byte[] batch) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(batch);
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        if (fsync) {
+            target.force(false);
+        }
+    }
+
+    // Fecha o segmento atual (gravando o que estiver pendente) e começa outro; devolve o último LSN do segmento fechado
+    long rotate() throws IOException {
+        synchronized (lock) {
+            while (flushing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrompido esperando o log de comandos");
+                }
+            }
+            if (failure != null) {
+                throw failed();
+            }
+            write(channel, pending.toByteArray());
+            pending.reset();
+            durableLsn = lastLsn;
+            channel.close();
+            channel = openSegment(lastLsn + 1);
+            lock.notifyAll();
+            return lastLsn;
+        }
+    }
+
+    // Apaga os segmentos em que todos os registros têm LSN <= "lsn" (já incluídos em um snapshot)
+    void deleteUpTo(long lsn) throws IOException {
+        List<Path> segments = segments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstLsn(segments.get(i + 1)) - 1 <= lsn) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (failure != null) {
+                channel.close();
+                return;
+            }
+            write(channel, pending.toByteArray());
+            pending.reset();
+            durableLsn = lastLsn;
+            channel.close();
+        }
+    }
+
+    // Registro lido do log
+    record Entry(long lsn, byte[] payload) {
+    }
+
+    interface EntryConsumer {
+        void accept(Entry entry) throws IOException;
+    }
+
+    // Lê todos os segmentos em ordem e devolve o maior LSN encontrado (0 se não houver registros)
+    static long replay(Path directory, EntryConsumer consumer) throws IOException {
+        long last = 0;
+        for (Path segment : segments(directory)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), 1 << 16))) {
+                while (true) {
+                    Entry entry = read(in);
+                    if (entry == null) {
+                        break;
+                    }
+                    last = Math.max(last, entry.lsn());
+                    consumer.accept(entry);
+                }
+            }
+        }
+        return last;
+    }
+
+    // Próximo registro, ou null no fim do segmento ou no primeiro registro incompleto/corrompido
+    private static Entry read(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            long lsn = in.readLong();
+            if (length < 0 || length > 64 << 20) {
+                log.warn("Registro inválido no log de comandos (LSN {}); o restante do segmento foi ignorado", lsn);
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(ByteBuffer.allocate(8).putLong(0, lsn));
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                log.warn("CRC inválido no log de comandos (LSN {}); o restante do segmento foi ignorado", lsn);
+                return null;
+            }
+            return new Entry(lsn, payload);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(file -> file.getFileName().toString().startsWith(PREFIX)
+                            && file.getFileName().toString().endsWith(SUFFIX))
+                    .toList());
+            segments.sort((a, b) -> Long.compare(firstLsn(a), firstLsn(b)));
+            return segments;
+        }
+    }
+
+    private static long firstLsn(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
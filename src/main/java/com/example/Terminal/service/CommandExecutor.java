@@ -0,0 +1,77 @@
+package com.example.Terminal.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Onde os comandos rodam (terminal.executor.mode):
+//   platform - na própria thread da requisição (pool do Tomcat), como sempre foi
+//   virtual  - cada comando em uma thread virtual, passando pela fila da sessão: os comandos de um terminal saem
+//              na ordem em que chegaram e a thread da requisição é liberada enquanto o comando espera/roda
+// As seções synchronized do modelo (Directory/File) são curtas e não fazem I/O, então prender a thread virtual
+// à thread de plataforma nelas não chega a ser um problema
+@Component
+public class CommandExecutor implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(CommandExecutor.class);
+
+    public enum Mode {
+        PLATFORM, VIRTUAL
+    }
+
+    private final Mode mode;
+    // Só existe no modo virtual
+    private final ExecutorService virtualThreads;
+
+    public CommandExecutor(@Value("${terminal.executor.mode:platform}") String mode) {
+        this(Mode.valueOf(mode.trim().toUpperCase()));
+    }
+
+    public CommandExecutor(Mode mode) {
+        this.mode = mode;
+        this.virtualThreads = mode == Mode.VIRTUAL ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        log.info("Comandos executados no modo {}", mode.name().toLowerCase());
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Executa a tarefa para a sessão. No modo platform roda na hora (o future já volta completo); exceções da
+    // tarefa completam o future com erro em vez de serem lançadas
+    public <T> CompletableFuture<T> submit(TerminalSession session, Callable<T> task) {
+        if (mode == Mode.PLATFORM) {
+            return call(task);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        session.getCommandQueue().execute(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                // Inclui Error (ex.: StackOverflowError): o cliente recebe a falha em vez de esperar para sempre
+                result.completeExceptionally(e);
+            }
+        }, virtualThreads);
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> call(Callable<T> task) {
+        try {
+            return CompletableFuture.completedFuture(task.call());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (virtualThreads != null) {
+            virtualThreads.close();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.Terminal.service;
+
+import java.util.function.Supplier;
+
+// Registro dos comandos que alteram a árvore (mkdir, rm, echo > ...), chamado pelo TerminalService em volta da
+// execução de cada um. A implementação durável fica em persistence.PersistenceEngine; sem ela nada é gravado
+public interface CommandJournal {
+    CommandJournal NONE = new CommandJournal() {
+        @Override
+        public <T> T write(TerminalSession session, String command, Supplier<T> execution) {
+            return execution.get();
+        }
+    };
+
+    // Executa o comando (execution) e o registra; o resultado só volta depois que o registro estiver gravado
+    <T> T write(TerminalSession session, String command, Supplier<T> execution);
+}
@@ -0,0 +1,108 @@
+package com.example.Terminal.service;
+
+import com.example.Terminal.command.OutputSink;
+import com.example.Terminal.model.File;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Métricas por comando (latência, erros e tamanho da saída) e do tamanho das árvores, expostas em /actuator/prometheus
+@Component
+public class CommandMetrics {
+    private final MeterRegistry registry;
+    // Medidores já registrados, por comando (evita a busca no registry a cada execução)
+    private final Map<String, CommandMeters> meters = new ConcurrentHashMap<>();
+
+    public CommandMetrics(MeterRegistry registry, SessionRegistry sessionRegistry) {
+        this.registry = registry;
+
+        Gauge.builder("terminal.sessions", sessionRegistry, SessionRegistry::size)
+                .description("Sessões de terminal ativas")
+                .register(registry);
+        Gauge.builder("terminal.tree.nodes", sessionRegistry, sessions -> sessions.getSessions().stream()
+                        .mapToLong(session -> session.getRoot().getFileCount() + session.getRoot().getDirectoryCount()).sum())
+                .description("Total de arquivos e diretórios em todas as sessões")
+                .register(registry);
+        Gauge.builder("terminal.tree.bytes", sessionRegistry, sessions -> sessions.getSessions().stream()
+                        .mapToLong(session -> session.getRoot().getTotalSize()).sum())
+                .description("Total de caracteres armazenados em arquivos em todas as sessões")
+                .baseUnit("chars")
+                .register(registry);
+        Gauge.builder("terminal.content.distinct", sessionRegistry, sessions -> File.distinctContents())
+                .description("Conteúdos de arquivo diferentes em memória (arquivos iguais compartilham um só)")
+                .register(registry);
+    }
+
+    // Executa o comando medindo o tempo, o tamanho da saída e as falhas: os comandos informam a falha pelo status
+    // da sessão (fail), e uma exceção também conta como falha
+    public String record(String command, TerminalSession session, Supplier<String> action) {
+        CommandMeters commandMeters = meters.computeIfAbsent(command, this::createMeters);
+        long start = System.nanoTime();
+        try {
+            String output = action.get();
+            commandMeters.output.record(output.length());
+            if (session.getExitStatus() != 0) {
+                commandMeters.errors.increment();
+            }
+            return output;
+        } catch (RuntimeException e) {
+            commandMeters.errors.increment();
+            throw e;
+        } finally {
+            commandMeters.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Versão em streaming: o tamanho da saída é contado à medida que o comando escreve em "out"
+    public void record(String command, TerminalSession session, OutputSink out, Consumer<OutputSink> action) {
+        CommandMeters commandMeters = meters.computeIfAbsent(command, this::createMeters);
+        long start = System.nanoTime();
+        long[] written = new long[1];
+        try {
+            action.accept(text -> {
+                written[0] += text.length();
+                out.write(text);
+            });
+            commandMeters.output.record(written[0]);
+            if (session.getExitStatus() != 0) {
+                commandMeters.errors.increment();
+            }
+        } catch (RuntimeException e) {
+            commandMeters.errors.increment();
+            throw e;
+        } finally {
+            commandMeters.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private CommandMeters createMeters(String command) {
+        return new CommandMeters(
+                Timer.builder("terminal.command")
+                        .description("Tempo de execução dos comandos")
+                        .tag("command", command)
+                        .publishPercentiles(0.5, 0.99)
+                        .publishPercentileHistogram()
+                        .register(registry),
+                Counter.builder("terminal.command.errors")
+                        .description("Comandos que terminaram com status diferente de zero ou com exceção")
+                        .tag("command", command)
+                        .register(registry),
+                DistributionSummary.builder("terminal.command.output")
+                        .description("Tamanho da saída dos comandos")
+                        .baseUnit("chars")
+                        .tag("command", command)
+                        .register(registry));
+    }
+
+    private record CommandMeters(Timer latency, Counter errors, DistributionSummary output) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.Terminal.service;
+
+// Resultado de um comando de um script: saída (já sem espaços nas pontas, como no /execute) e status de saída.
+// Comandos pulados por causa de um '&&' têm skipped = true, saída vazia e o status do comando que falhou
+public record CommandResult(String command, String output, int status, boolean skipped) {
+}
@@ -0,0 +1,36 @@
+package com.example.Terminal.service;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+// Fila de comandos de uma sessão: as tarefas rodam uma de cada vez, na ordem de chegada, cada uma em uma execução
+// própria do executor (no modo virtual, uma thread virtual por comando). Sessões diferentes não esperam umas pelas outras
+final class SerialQueue {
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    // Há uma tarefa desta fila rodando (ou já entregue ao executor)
+    private boolean running;
+
+    synchronized void execute(Runnable task, Executor executor) {
+        tasks.add(task);
+        if (!running) {
+            running = true;
+            scheduleNext(executor);
+        }
+    }
+
+    private synchronized void scheduleNext(Executor executor) {
+        Runnable task = tasks.poll();
+        if (task == null) {
+            running = false;
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                scheduleNext(executor);
+            }
+        });
+    }
+}
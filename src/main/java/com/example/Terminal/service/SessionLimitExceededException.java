@@ -0,0 +1,14 @@
+package com.example.Terminal.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Lançada quando o número máximo de sessões simultâneas foi atingido
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SessionLimitExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public SessionLimitExceededException(int maxSessions) {
+        super("Limite de " + maxSessions + " sessões simultâneas atingido");
+    }
+}
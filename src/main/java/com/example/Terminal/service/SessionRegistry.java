@@ -0,0 +1,97 @@
+package com.example.Terminal.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Registro das sessões de terminal ativas, indexadas pelo token enviado pelo cliente
+@Component
+public class SessionRegistry {
+    private final Map<String, TerminalSession> sessions = new ConcurrentHashMap<>();
+    // Vagas ocupadas: reservadas antes de criar a sessão (CAS), para que requisições simultâneas não passem juntas
+    // do limite; liberadas quando a sessão sai do mapa
+    private final AtomicInteger occupied = new AtomicInteger();
+    private final int maxSessions;
+    private final long idleTimeoutMillis;
+
+    public SessionRegistry(@Value("${terminal.session.max-sessions:10000}") int maxSessions,
+                           @Value("${terminal.session.idle-timeout-ms:1800000}") long idleTimeoutMillis) {
+        this.maxSessions = maxSessions;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    // Retorna a sessão do token informado ou cria uma nova (com um token novo) se ela não existir
+    public TerminalSession getOrCreate(String token) {
+        if (token != null && !token.isBlank()) {
+            TerminalSession existing = sessions.get(token);
+            if (existing != null) {
+                existing.touch();
+                return existing;
+            }
+        }
+
+        if (!reserve()) {
+            evictIdleSessions();
+            if (!reserve()) {
+                throw new SessionLimitExceededException(maxSessions);
+            }
+        }
+
+        TerminalSession session = new TerminalSession(UUID.randomUUID().toString());
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    // Ocupa uma vaga se ainda houver
+    private boolean reserve() {
+        while (true) {
+            int current = occupied.get();
+            if (current >= maxSessions) {
+                return false;
+            }
+            if (occupied.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Sessão recuperada do disco na inicialização: mantém o token original e ocupa uma vaga como as demais, mas
+    // nunca é recusada (ela já existia antes do reinício)
+    public TerminalSession restore(String token) {
+        return sessions.computeIfAbsent(token, id -> {
+            occupied.incrementAndGet();
+            return new TerminalSession(id);
+        });
+    }
+
+    public void remove(String token) {
+        if (sessions.remove(token) != null) {
+            occupied.decrementAndGet();
+        }
+    }
+
+    public Collection<TerminalSession> getSessions() {
+        return sessions.values();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    // Remove periodicamente as sessões que ficaram ociosas além do tempo limite
+    @Scheduled(fixedDelayString = "${terminal.session.eviction-interval-ms:60000}")
+    public void evictIdleSessions() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        for (TerminalSession session : sessions.values()) {
+            if (session.getLastAccess() < cutoff && sessions.remove(session.getId(), session)) {
+                occupied.decrementAndGet();
+            }
+        }
+    }
+}
@@ -1,135 +1,411 @@
 package com.example.Terminal.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.regex.PatternSyntaxException;
+import com.example.Terminal.command.Command;
+import com.example.Terminal.command.CommandLine;
+import com.example.Terminal.command.CommandRegistry;
+import com.example.Terminal.command.OutputSink;
+import com.example.Terminal.command.PipeStage;
+import com.example.Terminal.command.Script;
+import com.example.Terminal.index.NamePattern;
+import com.example.Terminal.model.ArchiveFile;
 import com.example.Terminal.model.Directory;
 import com.example.Terminal.model.File;
+import com.example.Terminal.model.FileContent;
+import com.example.Terminal.model.TreeDiff;
+import com.example.Terminal.model.TreeWalker;
+import com.example.Terminal.util.LineDiff;
+import com.example.Terminal.util.TextUtils;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 public class TerminalService {
-    // Diretório raiz do sistema de arquivos
-    private final Directory root;
-    // Diretório atual do terminal
-    private Directory currentDirectory;
-    // ArrayList para armazenar o histórico de comandos
-    private final List<String> commandHistory = new ArrayList<>();
-    // HashMap para armazenar as permissões dos arquivos (simulado)
-    private final Map<String, String> permissions = new HashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(TerminalService.class);
+    // Chaves do MDC: o id da sessão aparece nas linhas de log e "terminal.trace" libera o nível DEBUG
+    // só para as sessões com trace ligado (ver logback-spring.xml)
+    public static final String MDC_SESSION = "terminal.session";
+    public static final String MDC_TRACE = "terminal.trace";
+
+    // grep -r só divide os arquivos entre as threads a partir deste total de caracteres
+    private static final long PARALLEL_GREP_CHARS = 1 << 20;
+
+    // Comandos que alteram a árvore ou as permissões e por isso vão para o CommandJournal (assim como qualquer
+    // comando com > ou >>)
+    private static final Set<String> MUTATING_COMMANDS = Set.of("mkdir", "rmdir", "touch", "rm", "mv", "cp", "rename",
+            "chmod", "chown", "zip", "unzip", "snapshot", "restore", "exit");
+
+    private final CommandMetrics commandMetrics;
+    private final CommandRegistry commands;
+    // Trocado pela persistência depois da recuperação (os comandos reaplicados não são gravados de novo)
+    private volatile CommandJournal journal = CommandJournal.NONE;
+
+    public TerminalService(CommandMetrics commandMetrics, CommandRegistry commands) {
+        this.commandMetrics = commandMetrics;
+        this.commands = commands;
+        registerCommands();
+    }
+
+    public void setJournal(CommandJournal journal) {
+        this.journal = journal;
+    }
 
-    // Construtor
-    public TerminalService() {
-        this.root = new Directory("~", null);
-        this.currentDirectory = root;
+    // Tabela de comandos: nome, número mínimo de argumentos, mensagem de uso e implementação
+    private void registerCommands() {
+        // Criação e Manipulação de Diretórios
+        commands.register("mkdir", 1, "mkdir: missing operand", (session, line) -> mkdir(session, line.arg(0)));
+        commands.register("rmdir", 1, "rmdir: missing operand", (session, line) -> rmdir(session, line.arg(0)));
+        commands.register("tree", Command.of((session, line) -> printTree(session.getCurrentDirectory()),
+                (session, line, out) -> TreeWalker.walk(session.getCurrentDirectory(), new StringBuilder(), TREE_PRINTER, out)));
+        commands.register("rename", 2, "rename: missing operands",
+                (session, line) -> rename(session, line.arg(0), line.arg(1)));
+
+        // Criação e Manipulação de Arquivos
+        commands.register("touch", 1, "touch: missing operand", (session, line) -> touch(session, line.arg(0)));
+        commands.register("echo", (session, line) -> String.join(" ", line.args()));
+        commands.register("cat", 1, "cat: missing operand", (session, line, out) -> cat(session, line.arg(0), out));
+        commands.register("rm", 1, "rm: missing operand", (session, line) -> rm(session, line.arg(0)));
+        commands.register("head", 2, "head: missing operands",
+                (session, line) -> withLineCount(session, line, n -> head(session, line.arg(0), n)));
+        commands.register("tail", 2, "tail: missing operands",
+                (session, line) -> withLineCount(session, line, n -> tail(session, line.arg(0), n)));
+        commands.register("wc", 1, "wc: missing operand", (session, line) -> wc(session, line.arg(0)));
+
+        // Navegação entre Diretórios
+        commands.register("cd", 1, "cd: missing operand", (session, line) -> cd(session, line.arg(0)));
+        commands.register("pwd", (session, line) -> getCurrentPath(session));
+
+        // Busca e Filtragem
+        commands.register("find", (session, line) -> line.argCount() < 3
+                || !line.arg(1).equals("-name") && !line.arg(1).equals("-regex")
+                ? fail(session, 2, "find: invalid syntax. Uso correto: find <diretorio> -name <padrao> | -regex <expressao>")
+                : find(session, line.arg(0), line.arg(1), line.arg(2)));
+        commands.register("grep", 2, "grep: missing operands", (session, line) -> line.arg(0).equals("-r")
+                ? grepRecursive(session, line.arg(1), line.argCount() > 2 ? line.arg(2) : ".")
+                : grep(session, line.arg(0), line.arg(1)));
+
+        // Permissões e Propriedades (Simuladas)
+        commands.register("chmod", 2, "chmod: missing operands", (session, line) -> chmod(session, line.arg(0), line.arg(1)));
+        commands.register("chown", 2, "chown: missing operands", (session, line) -> chown(session, line.arg(0), line.arg(1)));
+        commands.register("ls", (session, line) -> ls(session, line.arg(0).equals("-l")));
+
+        // Informações sobre Arquivos e Diretórios
+        commands.register("stat", 1, "stat: missing operand", (session, line) -> stat(session, line.arg(0)));
+        commands.register("du", 1, "du: missing operand", (session, line) -> du(session, line.arg(0)));
+
+        // Operações Avançadas
+        commands.register("cp", 2, "cp: missing operands", (session, line) -> cp(session, line.args()));
+        commands.register("mv", 2, "mv: missing operands", (session, line) -> mv(session, line.arg(0), line.arg(1)));
+        commands.register("diff", 2, "diff: missing operands", (session, line, out) -> diff(session, line.args(), out));
+        commands.register("zip", 2, "zip: missing operand",
+                (session, line) -> zip(session, line.args()));
+        commands.register("unzip", 1, "unzip: missing operand", (session, line) -> unzip(session, line.arg(0)));
+
+        // Pipes: comandos que leem as linhas do comando anterior (os demais ignoram a entrada)
+        commands.registerStage("cat", (session, line, input) -> line.argCount() < 1
+                ? Stream.of(fail(session, 2, "cat: missing operand")) : catLines(session, line.arg(0)));
+        commands.registerStage("echo", (session, line, input) -> Stream.of(String.join(" ", line.args())));
+        commands.registerStage("grep", (session, line, input) -> {
+            if (input == null) return commandLines(session, line);
+            if (line.argCount() < 1) return Stream.of(fail(session, 2, "grep: missing operands"));
+            String term = TextUtils.stripQuotes(line.arg(0));
+            return input.filter(text -> text.contains(term));
+        });
+        commands.registerStage("head", (session, line, input) -> input == null ? commandLines(session, line)
+                : withPipeLineCount(session, line, n -> input.limit(n)));
+        commands.registerStage("tail", (session, line, input) -> input == null ? commandLines(session, line)
+                : withPipeLineCount(session, line, n -> lastLines(input, n)));
+        commands.registerStage("wc", (session, line, input) -> {
+            if (input == null) return commandLines(session, line);
+            TextUtils.Counter counter = new TextUtils.Counter();
+            Iterator<String> lines = input.iterator();
+            while (lines.hasNext()) {
+                counter.add(lines.next());
+                if (lines.hasNext()) counter.add("\n");
+            }
+            TextUtils.Counts counts = counter.counts();
+            return Stream.of(counts.lines() + " " + counts.words() + " " + counts.chars());
+        });
+
+        // Versões da árvore
+        commands.register("snapshot", (session, line) -> snapshot(session, line.args()));
+        commands.register("restore", 1, "restore: missing operand", (session, line) -> restore(session, line.arg(0)));
+
+        // Extras
+        commands.register("history", (session, line, out) -> history(session, out));
+        commands.register("help", (session, line) -> getHelpMessage());
+        commands.register("trace", (session, line) -> trace(session, line.arg(0)));
+        commands.register("exit", (session, line) -> {
+            resetTerminal(session);
+            return "exit: Terminal encerrado. Inicie uma nova sessão.";
+        });
     }
 
     // Método para executar comandos
-    public String executeCommand(String command) {
-        commandHistory.add(command);
-
-        if (command.startsWith("echo ")) {
-            return echo(command.substring(5));
-        }
-
-        String[] parts = command.split(" ", 4);
-        String cmd = parts[0];
-        String arg1 = (parts.length > 1) ? parts[1] : "";
-        String arg2 = (parts.length > 2) ? parts[2] : "";
-
-
-        switch (cmd) {
-            // Criação e Manipulação de Diretórios
-            case "mkdir":
-                return !arg1.isEmpty() ? mkdir(arg1) : "mkdir: missing operand";
-            case "rmdir":
-                return !arg1.isEmpty() ? rmdir(arg1) : "rmdir: missing operand";
-            case "tree":
-                return printTree(currentDirectory, "");
-            case "rename":
-                return (!arg1.isEmpty() && !arg2.isEmpty()) ? rename(arg1, arg2) : "rename: missing operands";
-
-            // Criação e Manipulação de Arquivos
-            case "touch":
-                return !arg1.isEmpty() ? touch(arg1) : "touch: missing operand";
-            case "echo":
-                return echo(command.substring(5));
-            case "cat":
-                return !arg1.isEmpty() ? cat(arg1) : "cat: missing operand";
-            case "rm":
-                return !arg1.isEmpty() ? rm(arg1) : "rm: missing operand";
-            case "head":
-                return (!arg1.isEmpty() && !arg2.isEmpty()) ? head(arg1, Integer.parseInt(arg2))
-                        : "head: missing operands";
-            case "tail":
-                return (!arg1.isEmpty() && !arg2.isEmpty()) ? tail(arg1, Integer.parseInt(arg2))
-                        : "tail: missing operands";
-            case "wc":
-                return !arg1.isEmpty() ? wc(arg1) : "wc: missing operand";
-
-            // Navegação entre Diretórios
-            case "cd":
-                return !arg1.isEmpty() ? cd(arg1) : "cd: missing operand";
-            case "pwd":
-                return getCurrentPath();
-
-            // Busca e Filtragem
-            case "find":
-                if (parts.length < 4 || !parts[2].equals("-name")) {
-                    System.out.println(parts[2]);
-                    return "find: invalid syntax. Uso correto: find <diretorio> -name <arquivo>";   
+    public String executeCommand(TerminalSession session, String command) {
+        MDC.put(MDC_SESSION, session.getId());
+        if (session.isTrace()) {
+            MDC.put(MDC_TRACE, "on");
+        }
+        try {
+            log.debug("Executando comando: {}", command);
+            session.getCommandHistory().add(command);
+            session.setExitStatus(0);
+
+            List<String> pipeline = Script.pipeline(command);
+            if (journal != CommandJournal.NONE && mutates(pipeline)) {
+                return journal.write(session, command, () -> execute(session, command, pipeline));
+            }
+            return execute(session, command, pipeline);
+        } finally {
+            MDC.remove(MDC_TRACE);
+            MDC.remove(MDC_SESSION);
+        }
+    }
+
+    private String execute(TerminalSession session, String command, List<String> pipeline) {
+        if (pipeline.size() > 1) {
+            return commandMetrics.record("pipe", session, () -> {
+                StringBuilder output = new StringBuilder();
+                runPipeline(session, pipeline, output::append);
+                return output.toString();
+            });
+        }
+
+        CommandLine line = CommandLine.parse(command);
+        Optional<Command> handler = commands.find(line.name());
+        if (handler.isEmpty()) {
+            return commandMetrics.record("unknown", session, () -> fail(session, 127, "zsh: command not found: " + command));
+        }
+        return commandMetrics.record(line.name(), session, () -> run(session, line, handler.get()));
+    }
+
+    // true se algum comando da linha altera a árvore (os de MUTATING_COMMANDS ou qualquer um com redirecionamento)
+    private static boolean mutates(List<String> pipeline) {
+        for (String stage : pipeline) {
+            CommandLine line = CommandLine.parse(stage);
+            if (line.isRedirected() || MUTATING_COMMANDS.contains(line.name())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Executa scripts em sequência na sessão (endpoint /batch): cada um pode ter vários comandos separados por ';',
+    // '&&' ou linhas. O '&&' vale para o comando anterior, mesmo que ele esteja no script anterior da lista
+    public List<CommandResult> executeScript(TerminalSession session, List<String> scripts) {
+        List<CommandResult> results = new ArrayList<>();
+        int status = 0;
+        for (String script : scripts) {
+            for (Script.Step step : Script.parse(script)) {
+                if (step.onlyIfSuccess() && status != 0) {
+                    results.add(new CommandResult(step.command(), "", status, true));
+                    continue;
                 }
-                return find(parts[1], parts[3]);
-            case "grep":
-                return (!arg1.isEmpty() && !arg2.isEmpty()) ? grep(arg1, arg2) : "grep: missing operands";
-
-            // Permissões e Propriedades (Simuladas)
-            case "chmod":
-                return (!arg1.isEmpty() && !arg2.isEmpty()) ? chmod(arg1, arg2) : "chmod: missing operands";
-            case "chown":
-                return (!arg1.isEmpty() && !arg2.isEmpty()) ? chown(arg1, arg2) : "chown: missing operands";
-            case "ls":
-                return ls(arg1.equals("-l"));
-
-            // Informações sobre Arquivos e Diretórios
-            case "stat":
-                return !arg1.isEmpty() ? stat(arg1) : "stat: missing operand";
-            case "du":
-                return !arg1.isEmpty() ? du(arg1) : "du: missing operand";
-
-            // Operações Avançadas
-            case "cp":
-                return (!arg1.isEmpty() && !arg2.isEmpty()) ? cp(arg1, arg2) : "cp: missing operands";
-            case "mv":
-                return (!arg1.isEmpty() && !arg2.isEmpty()) ? mv(arg1, arg2) : "mv: missing operands";
-            case "diff":
-                return (!arg1.isEmpty() && !arg2.isEmpty()) ? diff(arg1, arg2) : "diff: missing operands";
-            case "zip":
-                return (parts.length > 2) ? zip(Arrays.copyOfRange(parts, 1, parts.length)) : "zip: missing operand";
-            case "unzip":
-                return !arg1.isEmpty() ? unzip(arg1) : "unzip: missing operand";
-
-            // Extras
-            case "history":
-                return history();
-            case "help":
-                return getHelpMessage();
-            case "exit":
-                resetTerminal();
-                return "exit: Terminal encerrado. Inicie uma nova sessão.";
-            default:
-                return "zsh: command not found: " + command;
+                String output = executeCommand(session, step.command()).trim();
+                status = session.getExitStatus();
+                results.add(new CommandResult(step.command(), output, status, false));
+            }
+        }
+        return results;
+    }
+
+    // Execução em streaming (endpoint /execute/stream): a saída vai sendo escrita em "out" em vez de ser devolvida
+    public void executeCommand(TerminalSession session, String command, OutputSink out) {
+        MDC.put(MDC_SESSION, session.getId());
+        if (session.isTrace()) {
+            MDC.put(MDC_TRACE, "on");
+        }
+        try {
+            log.debug("Executando comando (streaming): {}", command);
+            session.getCommandHistory().add(command);
+            session.setExitStatus(0);
+
+            List<String> pipeline = Script.pipeline(command);
+            if (journal != CommandJournal.NONE && mutates(pipeline)) {
+                journal.write(session, command, () -> {
+                    execute(session, command, pipeline, out);
+                    return null;
+                });
+            } else {
+                execute(session, command, pipeline, out);
+            }
+        } finally {
+            MDC.remove(MDC_TRACE);
+            MDC.remove(MDC_SESSION);
+        }
+    }
+
+    private void execute(TerminalSession session, String command, List<String> pipeline, OutputSink out) {
+        if (pipeline.size() > 1) {
+            commandMetrics.record("pipe", session, out, sink -> runPipeline(session, pipeline, sink));
+            return;
+        }
+
+        CommandLine line = CommandLine.parse(command);
+        Optional<Command> handler = commands.find(line.name());
+        if (handler.isEmpty()) {
+            commandMetrics.record("unknown", session, out, sink -> sink.write(fail(session, 127, "zsh: command not found: " + command)));
+            return;
+        }
+        commandMetrics.record(line.name(), session, out, sink -> run(session, line, handler.get(), sink));
+    }
+
+    // Com redirecionamento a saída vai para o arquivo (montada inteira, como na versão texto) e nada é escrito em "out"
+    private void run(TerminalSession session, CommandLine line, Command handler, OutputSink out) {
+        if (line.isRedirected()) {
+            out.write(run(session, line, handler));
+        } else {
+            handler.execute(session, line, out);
+        }
+    }
+
+    // Executa o comando e, se houver "> arquivo" ou ">> arquivo", grava a saída no arquivo em vez de devolvê-la
+    private String run(TerminalSession session, CommandLine line, Command handler) {
+        if (line.isRedirected() && line.redirectTarget() == null) {
+            return fail(session, 2, line.name() + ": syntax error");
+        }
+        String output = handler.execute(session, line);
+        return line.isRedirected() ? redirect(session, line, output) : output;
+    }
+
+    // Grava a saída no arquivo de "> arquivo" (sobrescreve) ou ">> arquivo" (acrescenta uma linha)
+    private String redirect(TerminalSession session, CommandLine line, String output) {
+        File newFile = new File(line.redirectTarget());
+        newFile.setContent(output);
+        File file = session.getCurrentDirectory().addFileIfAbsent(newFile);
+        if (file instanceof ArchiveFile) {
+            if (line.isAppend()) {
+                return fail(session, line.name() + ": " + file.getName() + ": arquivo compactado não pode ser alterado");
+            }
+            // O bloco compactado não muda: o arquivo passa a ser de texto, com a saída do comando
+            session.getCurrentDirectory().addFile(newFile);
+        } else if (file != newFile) {
+            if (line.isAppend()) {
+                file.appendLine(output);
+            } else {
+                file.setContent(output);
+            }
+        }
+        return "";
+    }
+
+    // Pipe: cada comando recebe as linhas do anterior como um Stream preguiçoso e só o último é consumido, linha a
+    // linha, direto para a saída. Um erro ao preparar um dos comandos (arquivo inexistente, uso incorreto...)
+    // interrompe o pipe e a mensagem vira a saída. O status é o do último comando; grep sem linhas dá status 1
+    private void runPipeline(TerminalSession session, List<String> stages, OutputSink out) {
+        Stream<String> lines = null;
+        CommandLine line = null;
+        for (int i = 0; i < stages.size(); i++) {
+            line = CommandLine.parse(stages.get(i));
+            if (line.name().isEmpty()) {
+                out.write(fail(session, 2, "zsh: parse error near `|'"));
+                return;
+            }
+            if (line.isRedirected() && (i < stages.size() - 1 || line.redirectTarget() == null)) {
+                out.write(fail(session, 2, line.name() + ": syntax error"));
+                return;
+            }
+
+            Optional<PipeStage> stage = commands.findStage(line.name());
+            if (stage.isPresent()) {
+                lines = stage.get().apply(session, line, lines);
+            } else if (commands.contains(line.name())) {
+                lines = commandLines(session, line);
+            } else {
+                out.write(fail(session, 127, "zsh: command not found: " + line.name()));
+                return;
+            }
+            if (session.getExitStatus() != 0) {
+                writeLines(lines, out);
+                return;
+            }
+        }
+
+        if (line.isRedirected()) {
+            out.write(redirect(session, line, lines.collect(Collectors.joining("\n"))));
+        } else if (writeLines(lines, out) == 0 && line.name().equals("grep")) {
+            session.setExitStatus(1);
+        }
+    }
+
+    // Saída de um comando comum dentro do pipe, separada em linhas
+    private Stream<String> commandLines(TerminalSession session, CommandLine line) {
+        String output = commands.find(line.name()).orElseThrow().execute(session, line);
+        return output.isEmpty() ? Stream.empty() : output.lines();
+    }
+
+    // head/tail em um pipe: "head 10" (o número é o primeiro argumento, já que não há arquivo)
+    private Stream<String> withPipeLineCount(TerminalSession session, CommandLine line, IntFunction<Stream<String>> action) {
+        try {
+            return action.apply(Math.max(Integer.parseInt(line.arg(0)), 0));
+        } catch (NumberFormatException e) {
+            return Stream.of(fail(session, 2, line.name() + ": número de linhas inválido: '" + line.arg(0) + "'"));
+        }
+    }
+
+    // Últimas N linhas: a memória fica limitada a N linhas, qualquer que seja o tamanho da entrada
+    private static Stream<String> lastLines(Stream<String> input, int n) {
+        Deque<String> last = new ArrayDeque<>(Math.min(n, 1024));
+        if (n > 0) {
+            input.forEachOrdered(text -> {
+                if (last.size() == n) last.removeFirst();
+                last.addLast(text);
+            });
+        }
+        return last.stream();
+    }
+
+    // Escreve as linhas separadas por '\n' (sem quebra no fim) e devolve quantas foram escritas
+    private static long writeLines(Stream<String> lines, OutputSink out) {
+        long count = 0;
+        Iterator<String> iterator = lines.iterator();
+        while (iterator.hasNext()) {
+            if (count++ > 0) {
+                out.write('\n');
+            }
+            out.write(iterator.next());
+        }
+        return count;
+    }
+
+    // Mensagem de erro de um comando: marca o status da sessão como falha (usado pelo && dos scripts)
+    private static String fail(TerminalSession session, String message) {
+        return fail(session, 1, message);
+    }
+
+    // 2 para erro de uso/sintaxe e 127 para comando inexistente, como no shell
+    private static String fail(TerminalSession session, int status, String message) {
+        session.setExitStatus(status);
+        return message;
+    }
+
+    // head/tail: converte o número de linhas, devolvendo erro em vez de exceção para valores inválidos
+    private String withLineCount(TerminalSession session, CommandLine line, IntFunction<String> action) {
+        try {
+            return action.apply(Integer.parseInt(line.arg(1)));
+        } catch (NumberFormatException e) {
+            return fail(session, 2, line.name() + ": número de linhas inválido: '" + line.arg(1) + "'");
         }
     }
 
     // Criação e Manipulação de Diretórios:
 
     // mkdir: Criar diretórios
-    private String mkdir(String path) {
+    private String mkdir(TerminalSession session, String path) {
         String[] parts = path.split("/");
-        Directory parent = currentDirectory;
+        Directory parent = session.getCurrentDirectory();
     
         for (int i = 0; i < parts.length; i++) {
             String part = parts[i];
@@ -140,83 +416,123 @@ public class TerminalService {
             } else {
                 // Se não é o último diretório da cadeia, não pode criar
                 if (i < parts.length - 1) {
-                    return "mkdir: não foi possível criar o diretório '" + path + "': Diretório intermediário não encontrado";
+                    return fail(session, "mkdir: não foi possível criar o diretório '" + path + "': Diretório intermediário não encontrado");
                 }
     
                 // Cria apenas o último diretório, se todos os anteriores existirem
                 Directory newDir = new Directory(part, parent);
-                parent.addDirectory(newDir);
+                if (parent.addDirectoryIfAbsent(newDir) != newDir) {
+                    return fail(session, "mkdir: O diretório já existe"); // Criado por outra requisição ao mesmo tempo
+                }
                 return "mkdir: Diretório '" + path + "' criado com sucesso";
             }
         }
-        return "mkdir: O diretório já existe";
+        return fail(session, "mkdir: O diretório já existe");
     }
     
     // rmdir: Remover diretórios vazios
-    private String rmdir(String name) {
-        Optional<Directory> dir = currentDirectory.findSubdirectory(name);
+    private String rmdir(TerminalSession session, String name) {
+        Optional<Directory> dir = session.getCurrentDirectory().findSubdirectory(name);
         if (dir.isPresent() && dir.get().getSubdirectories().isEmpty() && dir.get().getFiles().isEmpty()) {
-            currentDirectory.getSubdirectories().remove(dir.get());
+            session.getCurrentDirectory().removeDirectory(dir.get());
             return "";
         }
-        return "rmdir: Falha ao remover '" + name + "': directorio não esta vazio ou não existe";
+        return fail(session, "rmdir: Falha ao remover '" + name + "': directorio não esta vazio ou não existe");
     }
 
-    // tree: Exibe estrutura de diretórios
-    private String printTree(Directory dir, String prefix) {
+    // tree: Exibe estrutura de diretórios. A árvore é percorrida pelo TreeWalker (em paralelo nas árvores grandes)
+    // e os pedaços de saída são juntados uma única vez, na ordem da travessia. Em streaming a travessia é
+    // sequencial e escreve direto na resposta
+    private String printTree(Directory dir) {
         StringBuilder result = new StringBuilder();
+        for (OutputSink chunk : TreeWalker.walk(dir, new StringBuilder(), TREE_PRINTER)) {
+            result.append(((TextChunk) chunk).text);
+        }
+        return result.toString();
+    }
 
-        List<Directory> subdirs = dir.getSubdirectories();
-        List<File> files = dir.getFiles();
-        int totalItems = subdirs.size() + files.size();
+    // Pedaço da saída do tree montado em memória (modo paralelo)
+    private static final class TextChunk implements OutputSink {
+        final StringBuilder text = new StringBuilder();
 
-        int index = 0;
-        for (Directory subdir : subdirs) {
-            boolean isLast = (index == totalItems - 1);
-            result.append(prefix)
-                    .append(isLast ? "└── " : "├── ")
-                    .append(subdir.getName())
-                    .append("\n");
-            result.append(printTree(subdir, prefix + (isLast ? "    " : "│   ")));
-            index++;
+        @Override
+        public void write(CharSequence value) {
+            text.append(value);
         }
 
-        for (File file : files) {
-            boolean isLast = (index == totalItems - 1);
-            result.append(prefix)
-                    .append(isLast ? "└── " : "├── ")
-                    .append(file.getName())
-                    .append("\n");
-            index++;
+        @Override
+        public void write(char c) {
+            text.append(c);
         }
-
-        return result.toString();
     }
 
+    // O estado é o prefixo das linhas (│ e espaços): cresce 4 caracteres ao entrar em um diretório e volta ao sair,
+    // em vez de criar uma String nova por nível
+    private static final TreeWalker.Visitor<StringBuilder, OutputSink> TREE_PRINTER = new TreeWalker.Visitor<>() {
+        @Override
+        public OutputSink newChunk() {
+            return new TextChunk();
+        }
+
+        @Override
+        public StringBuilder copy(StringBuilder prefix) {
+            return new StringBuilder(prefix);
+        }
+
+        @Override
+        public void enter(Directory dir, int depth, boolean last, StringBuilder prefix, OutputSink out) {
+            if (depth == 0) {
+                return;
+            }
+            // Os arquivos são listados depois dos subdiretórios: o último subdiretório só fecha o ramo se não houver arquivos
+            boolean isLast = last && dir.getParent().getFiles().isEmpty();
+            out.write(prefix);
+            out.write(isLast ? "└── " : "├── ");
+            out.write(dir.getName());
+            out.write('\n');
+            prefix.append(isLast ? "    " : "│   ");
+        }
+
+        @Override
+        public void exit(Directory dir, int depth, boolean last, StringBuilder prefix, OutputSink out) {
+            Iterator<File> files = dir.getFiles().iterator();
+            while (files.hasNext()) {
+                File file = files.next();
+                out.write(prefix);
+                out.write(files.hasNext() ? "├── " : "└── ");
+                out.write(file.getName());
+                out.write('\n');
+            }
+            if (depth > 0) {
+                prefix.setLength(prefix.length() - 4);
+            }
+        }
+    };
+
     // rename: Renomeia um arquivo ou diretório
-    private String rename(String oldName, String newName) {
-        Optional<Directory> dir = currentDirectory.findSubdirectory(oldName);
+    private String rename(TerminalSession session, String oldName, String newName) {
+        Optional<Directory> dir = session.getCurrentDirectory().findSubdirectory(oldName);
         if (dir.isPresent()) {
-            dir.get().setName(newName);
-            return "";
+            return session.getCurrentDirectory().renameDirectory(dir.get(), newName) ? ""
+                    : fail(session, "rename: Já existe um diretório chamado: " + newName);
         }
-        Optional<File> file = currentDirectory.findFile(oldName);
+        Optional<File> file = session.getCurrentDirectory().findFile(oldName);
         if (file.isPresent()) {
-            file.get().setName(newName);
-            return "";
+            return session.getCurrentDirectory().renameFile(file.get(), newName) ? ""
+                    : fail(session, "rename: Já existe um arquivo chamado: " + newName);
         }
-        return "rename: Não existe arquivo ou diretorio: " + oldName;
+        return fail(session, "rename: Não existe arquivo ou diretorio: " + oldName);
     }
 
     // Criação e Manipulação de Arquivos:
 
     // touch: Criar arquivos vazios
-    private String touch(String name) {
+    private String touch(TerminalSession session, String name) {
         // Verifica se o nome inclui um caminho (ex: "docs/relatorio.txt")
         if (name.contains("/")) {
             String[] parts = name.split("/");
             String fileName = parts[parts.length - 1]; // Nome do arquivo
-            Directory targetDirectory = currentDirectory;
+            Directory targetDirectory = session.getCurrentDirectory();
     
             // Navega pelos diretórios até o último
             for (int i = 0; i < parts.length - 1; i++) {
@@ -224,178 +540,132 @@ public class TerminalService {
                 if (subdir.isPresent()) {
                     targetDirectory = subdir.get(); // Continua navegando
                 } else {
-                    return "touch: não foi possível criar o arquivo '" + name + "': Diretório não encontrado";
+                    return fail(session, "touch: não foi possível criar o arquivo '" + name + "': Diretório não encontrado");
                 }
             }
     
-            // Cria o arquivo no diretório final
-            if (targetDirectory.findFile(fileName).isPresent()) {
-                return ""; // Arquivo já existe
-            }
-            targetDirectory.addFile(new File(fileName));
+            // Cria o arquivo no diretório final (se já existir, não faz nada)
+            targetDirectory.addFileIfAbsent(new File(fileName));
             return "";
         }
     
-        // Caso contrário, cria o arquivo no diretório atual
-        if (currentDirectory.findFile(name).isPresent()) {
-            return ""; // Arquivo já existe
-        }
-        currentDirectory.addFile(new File(name));
+        // Caso contrário, cria o arquivo no diretório atual (se já existir, não faz nada)
+        session.getCurrentDirectory().addFileIfAbsent(new File(name));
         return "";
     }
     
 
-    // echo: Adicionar ou sobrescrever texto em arquivos
-    private String echo(String command) {
-        command = command.replaceAll("^\"|\"$", ""); // Remove aspas no início e no final
-
-        if (command.contains(">>")) {
-            String[] parts = command.split(">>", 2);
-            if (parts.length < 2)
-                return "echo: syntax error";
-            String content = parts[0].trim();
-            String fileName = parts[1].trim();
-
-            Optional<File> file = currentDirectory.findFile(fileName);
-            if (file.isPresent()) {
-                file.get().setContent(file.get().getContent().replaceAll("\"$", "") + "\n" + content);
-            } else {
-                File newFile = new File(fileName);
-                newFile.setContent(content);
-                currentDirectory.addFile(newFile);
-            }
-            return "";
-        } else if (command.contains(">")) {
-            String[] parts = command.split(">", 2);
-            if (parts.length < 2)
-                return "echo: syntax error";
-            String content = parts[0].trim();
-            String fileName = parts[1].trim();
-
-            Optional<File> file = currentDirectory.findFile(fileName);
-            if (file.isPresent()) {
-                file.get().setContent(content);
-            } else {
-                File newFile = new File(fileName);
-                newFile.setContent(content);
-                currentDirectory.addFile(newFile);
-            }
-            return "";
-        } else {
-            return command;
-        }
+    // cat: Mostrar conteúdo de arquivos. Escreve linha a linha, sem montar o conteúdo inteiro; as linhas lidas
+    // são as que existiam no início (acréscimos feitos durante a escrita ficam de fora)
+    private void cat(TerminalSession session, String fileName, OutputSink out) {
+        writeLines(catLines(session, fileName), out);
     }
 
-    // cat: Mostrar conteúdo de arquivos
-    private String cat(String fileName) {
+    // Linhas do arquivo para o cat, lidas sob demanda (também é o começo de pipes como "cat a | grep x")
+    private Stream<String> catLines(TerminalSession session, String fileName) {
 
-        Optional<File> file = currentDirectory.findFile(fileName);
+        Optional<File> file = session.getCurrentDirectory().findFile(fileName);
 
-        if (file.isPresent()) {
-            String content = file.get().getContent();
-            content = content.replaceAll("\"$", "");
-            return content;
+        if (file.isEmpty()) {
+            return Stream.of(fail(session, "cat: " + fileName + ": arquivo não encontrado"));
         }
 
-        return "cat: " + fileName + ": arquivo não encontrado";
+        FileContent content = file.get().content();
+        int count = content.lineCount();
+        // Só a última linha perde a aspa final, como em stripTrailingQuote(getContent())
+        return IntStream.range(0, count)
+                .mapToObj(i -> i == count - 1 ? TextUtils.stripTrailingQuote(content.line(i)) : content.line(i));
     }
 
     // rm: Remover arquivos e diretórios
-    private String rm(String name) {
-        Optional<File> file = currentDirectory.findFile(name);
+    private String rm(TerminalSession session, String name) {
+        Optional<File> file = session.getCurrentDirectory().findFile(name);
         if (file.isPresent()) {
-            currentDirectory.getFiles().remove(file.get());
+            session.getCurrentDirectory().removeFile(file.get());
             return "rm: Arquivo '" + name + "' removido.";
         }
     
-        Optional<Directory> dir = currentDirectory.findSubdirectory(name);
+        Optional<Directory> dir = session.getCurrentDirectory().findSubdirectory(name);
         if (dir.isPresent()) {
             deleteDirectoryRecursively(dir.get());
-            currentDirectory.getSubdirectories().remove(dir.get());
+            session.getCurrentDirectory().removeDirectory(dir.get());
             return "rm: Diretório '" + name + "' e seu conteúdo foram removidos.";
         }
     
-        return "rm: Não foi possível remover '" + name + "': arquivo ou diretório não encontrado.";
+        return fail(session, "rm: Não foi possível remover '" + name + "': arquivo ou diretório não encontrado.");
     }
     private void deleteDirectoryRecursively(Directory dir) {
-        for (File file : new ArrayList<>(dir.getFiles())) {
-            dir.getFiles().remove(file);
-        }
-    
-        for (Directory subDir : new ArrayList<>(dir.getSubdirectories())) {
+        for (Directory subDir : dir.getSubdirectories()) {
             deleteDirectoryRecursively(subDir);
-            dir.getSubdirectories().remove(subDir);
         }
+        dir.clear();
     }
     
 
     // head: Exibir as primeiras N linhas de um arquivo
-    private String head(String fileName, int n) {
-        Optional<File> file = currentDirectory.findFile(fileName);
+    private String head(TerminalSession session, String fileName, int n) {
+        Optional<File> file = session.getCurrentDirectory().findFile(fileName);
 
         if (file.isEmpty()) {
-            return "head: " + fileName + ": arquivo ou diretorio não encontrado";
+            return fail(session, "head: " + fileName + ": arquivo ou diretorio não encontrado");
         }
 
-        List<String> lines = Arrays.asList(file.get().getContent().split("\n"));
-        int endIndex = Math.min(n, lines.size()); // Pegando as primeiras N linhas
+        // Lê apenas as primeiras N linhas, direto do conteúdo linha a linha
+        FileContent content = file.get().content();
+        int endIndex = Math.min(Math.max(n, 0), content.visibleLineCount());
 
         // Remover aspas extras nas linhas antes de retornar
-        return lines.subList(0, endIndex).stream()
-                .map(line -> line.replaceAll("^\"|\"$", "")) // Remove aspas extras
+        return content.lines(0, endIndex)
+                .map(TextUtils::stripQuotes)
                 .collect(Collectors.joining("\n"));
     }
 
     // tail: Exibir as últimas N linhas de um arquivo
-    private String tail(String fileName, int n) {
-        Optional<File> file = currentDirectory.findFile(fileName);
+    private String tail(TerminalSession session, String fileName, int n) {
+        Optional<File> file = session.getCurrentDirectory().findFile(fileName);
 
         if (file.isEmpty()) {
-            return "tail: " + fileName + ": arquivo ou diretorio não encontrado";
+            return fail(session, "tail: " + fileName + ": arquivo ou diretorio não encontrado");
         }
 
-        List<String> lines = Arrays.asList(file.get().getContent().split("\n"));
-        int startIndex = Math.max(0, lines.size() - n); // Pegando as últimas N linhas
+        FileContent content = file.get().content();
+        int lineCount = content.visibleLineCount();
+        int startIndex = Math.max(0, lineCount - Math.max(n, 0)); // Pegando as últimas N linhas
 
         // Remover aspas extras nas linhas antes de retornar
-        return lines.subList(startIndex, lines.size()).stream()
-                .map(line -> line.replaceAll("^\"|\"$", "")) // Remove aspas extras
+        return content.lines(startIndex, lineCount)
+                .map(TextUtils::stripQuotes)
                 .collect(Collectors.joining("\n"));
     }
 
     // wc: Contar linhas, palavras e caracteres de um arquivo
-    private String wc(String fileName) {
-        Optional<File> file = currentDirectory.findFile(fileName);
+    private String wc(TerminalSession session, String fileName) {
+        Optional<File> file = session.getCurrentDirectory().findFile(fileName);
         return file.map(f -> {
-            // Remove todas as aspas do conteúdo antes da contagem
-            String content = f.getContent().replaceAll("\"", "");
-    
-            long lines = content.lines().count();
-            long words = Arrays.stream(content.split("\\s+")).filter(w -> !w.isEmpty()).count();
-            long chars = content.length();
-    
-            return lines + " " + words + " " + chars + " " + fileName;
-        }).orElse("wc: " + fileName + ": arquivo ou diretorio não encontrado");
+            // Conta linhas, palavras e caracteres ignorando as aspas, sem copiar o conteúdo
+            TextUtils.Counts counts = TextUtils.count(f.getContent());
+            return counts.lines() + " " + counts.words() + " " + counts.chars() + " " + fileName;
+        }).orElseGet(() -> fail(session, "wc: " + fileName + ": arquivo ou diretorio não encontrado"));
     }
     
     
     // Navegação entre Diretórios:
 
     // cd: Navegar entre diretórios
-    private String cd(String path) {
-        Directory targetDirectory = findDirectoryByPath(path);
+    private String cd(TerminalSession session, String path) {
+        Directory targetDirectory = findDirectoryByPath(session, path);
         if (targetDirectory != null) {
-            currentDirectory = targetDirectory;
+            session.setCurrentDirectory(targetDirectory);
             return "";
         }
-        return "cd: arquivo ou diretório não encontrado: '" + path + "'";
+        return fail(session, "cd: arquivo ou diretório não encontrado: '" + path + "'");
     }
     
 
     // pwd: Exibir o caminho atual do diretório
-    public String getCurrentPath() {
+    public String getCurrentPath(TerminalSession session) {
         StringBuilder path = new StringBuilder();
-        Directory temp = currentDirectory;
+        Directory temp = session.getCurrentDirectory();
         while (temp != null) {
             path.insert(0, "/" + temp.getName());
             temp = temp.getParent();
@@ -405,99 +675,104 @@ public class TerminalService {
 
     // Busca e Filtragem:
 
-    // find: Procurar arquivos e diretórios
-    private String find(String directoryName, String fileName) {
-        fileName = fileName.replaceAll("^\"|\"$", ""); // Remove aspas extras
+    // find: Procurar arquivos e diretórios pelo nome (glob com -name, expressão regular com -regex), usando o índice de nomes
+    private String find(TerminalSession session, String directoryName, String option, String fileName) {
+        fileName = TextUtils.stripQuotes(fileName); // Remove aspas extras
+
+        NamePattern pattern;
+        try {
+            pattern = option.equals("-regex") ? NamePattern.regex(fileName) : NamePattern.glob(fileName);
+        } catch (PatternSyntaxException e) {
+            return fail(session, "find: expressão inválida: " + fileName);
+        }
 
         Directory searchDirectory;
-        System.out.println("DEBUG: Este e o " +directoryName+ " e este e o " +fileName);
+        log.debug("find: diretório '{}', {} '{}'", directoryName, option, fileName);
         // Se for ".", busca no diretório atual; se for "~", busca na raiz
         if (directoryName.equals("~") || directoryName.equals(".")) {
-            searchDirectory = root;
+            searchDirectory = session.getRoot();
         } else if (directoryName.equals("/")) {
-            searchDirectory = root;
+            searchDirectory = session.getRoot();
         } else {
-            Optional<Directory> specifiedDir = findDirectoryRecursive(root, directoryName);
+            Optional<Directory> specifiedDir = session.getNameIndex().firstDirectory(session.getRoot(), directoryName);
             if (specifiedDir.isPresent()) {
                 searchDirectory = specifiedDir.get();
             } else {
-                return "find: diretório não encontrado: " + directoryName;
+                return fail(session, "find: diretório não encontrado: " + directoryName);
             }
         }
 
-        List<String> results = new ArrayList<>();
-        searchRecursively(searchDirectory, fileName, results, searchDirectory.getName());
+        List<String> results = session.getNameIndex().find(searchDirectory, pattern);
 
-        System.out.println(results);
+        log.debug("find: {} resultado(s)", results.size());
 
-        return results.isEmpty() ? "find: Nenhum arquivo correspondente encontrado" : String.join("\n", results);
+        return results.isEmpty() ? fail(session, "find: Nenhum arquivo correspondente encontrado") : String.join("\n", results);
     }
 
-    private Optional<Directory> findDirectoryRecursive(Directory dir, String name) {
-        if (dir.getName().equals(name)) {
-            return Optional.of(dir);
-        }
+    // grep: Procurar texto em arquivos
+    private String grep(TerminalSession session, String term, String fileName) {
+        Optional<File> file = session.getCurrentDirectory().findFile(fileName);
 
-        for (Directory subdir : dir.getSubdirectories()) {
-            Optional<Directory> found = findDirectoryRecursive(subdir, name);
-            if (found.isPresent()) {
-                return found;
-            }
+        if (file.isEmpty()) {
+            return fail(session, "grep: " + fileName + ": arquivo ou diretorio não encontrado");
         }
-        return Optional.empty();
-    }
 
-    // Método para busca recursiva de arquivos/diretórios
-    private void searchRecursively(Directory dir, String name, List<String> results, String path) {
-        System.out.println("DEBUG: Buscando '" + name + "' no diretório '" + path + "'");
+        final String finalTerm = TextUtils.stripQuotes(term); // Remove aspas externas
 
-        // Verifica se algum arquivo dentro do diretório corresponde ao nome buscado
-        for (File file : dir.getFiles()) {
-            if (file.getName().equals(name)) {
-                results.add(path + "/" + file.getName());
-                System.out.println("DEBUG: Arquivo encontrado -> " + path + "/" + file.getName());
-            }
-        }
+        FileContent content = file.get().content();
+        List<String> matchingLines = content.lines(0, content.visibleLineCount())
+                .filter(line -> line.contains(finalTerm))
+                .collect(Collectors.toList());
 
-        // Verifica se algum subdiretório corresponde ao nome buscado
-        for (Directory subdir : dir.getSubdirectories()) {
-            String subdirPath = path + "/" + subdir.getName();
-            if (subdir.getName().equals(name)) {
-                results.add(subdirPath);
-                System.out.println("DEBUG: Diretório encontrado -> " + subdirPath);
-            }
-            searchRecursively(subdir, name, results, subdirPath);
-        }
+        return matchingLines.isEmpty() ? fail(session, "grep: Nenhuma correspondência encontrada para '" + finalTerm + "'")
+                : String.join("\n", matchingLines);
     }
 
-    // grep: Procurar texto em arquivos
-    private String grep(String term, String fileName) {
-        Optional<File> file = currentDirectory.findFile(fileName);
-
-        if (file.isEmpty()) {
-            return "grep: " + fileName + ": arquivo ou diretorio não encontrado";
+    // grep -r: Procurar texto em todos os arquivos de um diretório; o índice de conteúdo escolhe os arquivos
+    // que podem conter o termo e só as linhas desses arquivos são lidas
+    private String grepRecursive(TerminalSession session, String term, String path) {
+        Directory directory = findDirectoryByPath(session, path);
+        if (directory == null) {
+            return fail(session, "grep: " + path + ": arquivo ou diretorio não encontrado");
         }
 
-        final String finalTerm = term.replaceAll("^\"|\"$", ""); // Remove aspas externas
+        String finalTerm = TextUtils.stripQuotes(term);
+        String prefix = path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        Map<String, File> candidates = session.getContentIndex().candidates(directory, finalTerm, prefix);
+        log.debug("grep -r: {} arquivo(s) candidato(s) para '{}'", candidates.size(), finalTerm);
+
+        // Cada arquivo é lido por uma tarefa do ForkJoinPool quando há bastante conteúdo; a stream é ordenada,
+        // então os resultados saem na ordem da travessia
+        List<Map.Entry<String, File>> files = new ArrayList<>(candidates.entrySet());
+        long totalLength = files.stream().mapToLong(entry -> entry.getValue().length()).sum();
+        Stream<Map.Entry<String, File>> stream = totalLength >= PARALLEL_GREP_CHARS ? files.parallelStream() : files.stream();
+        String result = stream
+                .map(entry -> grepFile(entry.getKey(), entry.getValue(), finalTerm))
+                .filter(lines -> !lines.isEmpty())
+                .collect(Collectors.joining("\n"));
 
-        List<String> matchingLines = Arrays.stream(file.get().getContent().split("\n"))
-                .filter(line -> line.contains(finalTerm))
-                .collect(Collectors.toList());
+        return result.isEmpty() ? fail(session, "grep: Nenhuma correspondência encontrada para '" + finalTerm + "'") : result;
+    }
 
-        return matchingLines.isEmpty() ? "grep: Nenhuma correspondência encontrada para '" + finalTerm + "'"
-                : String.join("\n", matchingLines);
+    // Linhas do arquivo que contêm o termo, no formato "caminho:linha"
+    private static String grepFile(String path, File file, String term) {
+        FileContent content = file.content();
+        return content.lines(0, content.visibleLineCount())
+                .filter(line -> line.contains(term))
+                .map(line -> path + ":" + line)
+                .collect(Collectors.joining("\n"));
     }
 
     // Permissões e Propriedades (Simuladas):
 
     // chmod: Alterar permissões simuladas
-    private String chmod(String permission, String name) {
-        Optional<File> file = currentDirectory.findFile(name);
+    private String chmod(TerminalSession session, String permission, String name) {
+        Optional<File> file = session.getCurrentDirectory().findFile(name);
         if (file.isPresent()) {
-            permissions.put(name, convertPermission(permission));
+            session.getPermissions().put(name, convertPermission(permission));
             return "";
         }
-        return "chmod: cannot access '" + name + "': arquivo ou diretorio não encontrado";
+        return fail(session, "chmod: cannot access '" + name + "': arquivo ou diretorio não encontrado");
     }
 
     private String convertPermission(String permission) {
@@ -511,47 +786,43 @@ public class TerminalService {
     }
 
     // chown: Alterar proprietário
-    private String chown(String owner, String name) {
-        Optional<File> file = currentDirectory.findFile(name);
-        Optional<Directory> dir = currentDirectory.findSubdirectory(name);
+    private String chown(TerminalSession session, String owner, String name) {
+        Optional<File> file = session.getCurrentDirectory().findFile(name);
+        Optional<Directory> dir = session.getCurrentDirectory().findSubdirectory(name);
     
         if (file.isPresent()) {
-            permissions.put(name + "_owner", owner);  // Armazena o proprietário do arquivo
+            session.getPermissions().put(name + "_owner", owner);  // Armazena o proprietário do arquivo
             return "chown: Proprietário de '" + name + "' alterado para '" + owner + "'";
         }
     
         if (dir.isPresent()) {
-            permissions.put(name + "_owner", owner);  // Armazena o proprietário do diretório
+            session.getPermissions().put(name + "_owner", owner);  // Armazena o proprietário do diretório
             return "chown: Proprietário de '" + name + "' alterado para '" + owner + "'";
         }
     
-        return "chown: Acesso não permitido '" + name + "': arquivo ou diretorio não encontrado";
+        return fail(session, "chown: Acesso não permitido '" + name + "': arquivo ou diretorio não encontrado");
     }
     
 
     // ls -l: Listar conteúdo do diretório com detalhes
-    private String ls(boolean isDetailed) {
+    private String ls(TerminalSession session, boolean isDetailed) {
         StringBuilder output = new StringBuilder();
         DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("MMM dd HH:mm");
     
-        List<Directory> dirs = currentDirectory.getSubdirectories().stream()
-                .sorted(Comparator.comparing(Directory::getName))
-                .toList();
-    
-        List<File> files = currentDirectory.getFiles().stream()
-                .sorted(Comparator.comparing(File::getName))
-                .toList();
+        // Os filhos já são mantidos em ordem alfabética pelo diretório
+        Collection<Directory> dirs = session.getCurrentDirectory().getSubdirectories();
+        Collection<File> files = session.getCurrentDirectory().getFiles();
     
         if (isDetailed) {
             for (Directory dir : dirs) {
                 String formattedDate = LocalDateTime.now().format(dateFormat);
-                String owner = permissions.getOrDefault(dir.getName() + "_owner", "user");  // Busca o proprietário
+                String owner = session.getPermissions().getOrDefault(dir.getName() + "_owner", "user");  // Busca o proprietário
                 output.append(String.format("drwxr-xr-x  %-5s  root  4096  %s  %s/\n", owner, formattedDate, dir.getName()));
             }
             for (File file : files) {
-                String permission = permissions.getOrDefault(file.getName(), "-rw-r--r--");
-                String owner = permissions.getOrDefault(file.getName() + "_owner", "user");  // Busca o proprietário
-                int size = file.getContent().length();
+                String permission = session.getPermissions().getOrDefault(file.getName(), "-rw-r--r--");
+                String owner = session.getPermissions().getOrDefault(file.getName() + "_owner", "user");  // Busca o proprietário
+                long size = file.length();
                 String formattedDate = LocalDateTime.now().format(dateFormat);
                 output.append(String.format("%s  %-5s  root  %4d  %s  %s\n", permission, owner, size, formattedDate, file.getName()));
             }
@@ -578,128 +849,114 @@ public class TerminalService {
     // Informações sobre Arquivos e Diretórios:
 
     // stat: Exibe detalhes de um arquivo ou diretório
-    private String stat(String name) {
-        Optional<File> file = currentDirectory.findFile(name);
-        Optional<Directory> dir = currentDirectory.findSubdirectory(name);
+    private String stat(TerminalSession session, String name) {
+        Optional<File> file = session.getCurrentDirectory().findFile(name);
+        Optional<Directory> dir = session.getCurrentDirectory().findSubdirectory(name);
     
         if (file.isPresent()) {
-            // Remove todas as aspas antes de calcular o tamanho
-            String contentWithoutQuotes = file.get().getContent().replaceAll("\"", "");
-            return "File: " + name + "\nSize: " + contentWithoutQuotes.length() + " bytes";
+            return "File: " + name + "\nSize: " + file.get().length() + " bytes";
         }
         if (dir.isPresent()) {
             return "Directory: " + name + "\nSubdirectories: " + dir.get().getSubdirectories().size();
         }
-        return "stat: Não foi possível acessar '" + name + "': arquivo ou diretorio não encontrado";
+        return fail(session, "stat: Não foi possível acessar '" + name + "': arquivo ou diretorio não encontrado");
     }
     
 
     // du: Exibe o tamanho do diretório
-    private String du(String name) {
+    private String du(TerminalSession session, String name) {
         Directory targetDirectory;
     
         if (name.equals(".")) {
-            targetDirectory = currentDirectory; // Se for ".", usa o diretório atual
+            targetDirectory = session.getCurrentDirectory(); // Se for ".", usa o diretório atual
         } else {
-            Optional<Directory> dir = currentDirectory.findSubdirectory(name);
+            Optional<Directory> dir = session.getCurrentDirectory().findSubdirectory(name);
             if (dir.isEmpty()) {
-                return "du: Acesso não permitido '" + name + "': arquivo ou diretório não encontrado";
+                return fail(session, "du: Acesso não permitido '" + name + "': arquivo ou diretório não encontrado");
             }
             targetDirectory = dir.get();
         }
     
-        int totalSize = calculateDirectoryDU(targetDirectory);
-        return "Tamanho do diretório: " + totalSize + " bytes";
-    }
-    
-    private int calculateDirectoryDU(Directory dir) {
-        int size = 0;
-    
-        for (File file : dir.getFiles()) {
-            // Remove as aspas antes de contar o tamanho
-            String contentWithoutQuotes = file.getContent().replaceAll("^\"|\"$", "");
-            size += contentWithoutQuotes.length();
-        }
-    
-        for (Directory subdir : dir.getSubdirectories()) {
-            size += calculateDirectorySize(subdir);
-        }
-    
-        return size;
+        // Total mantido pelo próprio diretório: não percorre a subárvore
+        return "Tamanho do diretório: " + targetDirectory.getTotalSize() + " bytes";
     }
     
 
     // Operações Avançadas:
 
-    // cp: Copia arquivos ou diretórios
-    private String cp(String source, String destination) {
-        Optional<Directory> dir = currentDirectory.findSubdirectory(source);
-        Optional<File> file = currentDirectory.findFile(source);
+    // cp: Copia arquivos ou diretórios. Diretórios (com ou sem -r) são copiados inteiros em O(1): a cópia é
+    // preguiçosa e os nós só são criados quando alguém olha dentro dela ou quando o original muda
+    private String cp(TerminalSession session, List<String> args) {
+        if (args.get(0).equals("-r")) {
+            args = args.subList(1, args.size());
+        }
+        if (args.size() < 2) {
+            return fail(session, "cp: missing operands");
+        }
+        String source = args.get(0);
+        String destination = args.get(1);
+        Optional<Directory> dir = session.getCurrentDirectory().findSubdirectory(source);
+        Optional<File> file = session.getCurrentDirectory().findFile(source);
     
-        Directory targetDir = findDirectoryByPath(destination);
+        Directory targetDir = findDirectoryByPath(session, destination);
         if (targetDir == null) {
-            return "cp: diretório de destino não encontrado: '" + destination + "'";
+            return fail(session, "cp: diretório de destino não encontrado: '" + destination + "'");
         }
     
         if (file.isPresent()) {
-            File newFile = new File(file.get().getName());
-            newFile.setContent(file.get().getContent());
-            targetDir.addFile(newFile);
+            targetDir.addFile(file.get().copy(file.get().getName()));
             return "cp: Arquivo '" + source + "' copiado para '" + destination + "'";
         }
     
         if (dir.isPresent()) {
             if (source.equals(destination)) {
-                return "cp: Não foi possível copiar '" + source + "': destino é o mesmo que a origem";
+                return fail(session, "cp: Não foi possível copiar '" + source + "': destino é o mesmo que a origem");
             }
     
             Directory originalDir = dir.get();
-            Directory newDir = new Directory(originalDir.getName(), targetDir);
-            for (File f : originalDir.getFiles()) {
-                File newFile = new File(f.getName());
-                newFile.setContent(f.getContent());
-                newDir.addFile(newFile);
-            }
-            for (Directory d : originalDir.getSubdirectories()) {
-                newDir.addDirectory(new Directory(d.getName(), newDir));
+            for (Directory current = targetDir; current != null; current = current.getParent()) {
+                if (current == originalDir) {
+                    return fail(session, "cp: Não foi possível copiar '" + source + "' para dentro de si mesmo");
+                }
             }
-            targetDir.addDirectory(newDir);
+            targetDir.addDirectory(originalDir.lazyCopy(originalDir.getName()));
             return "cp: Diretório '" + source + "' copiado para '" + destination + "'";
         }
     
-        return "cp: arquivo ou diretório não encontrado: '" + source + "'";
+        return fail(session, "cp: arquivo ou diretório não encontrado: '" + source + "'");
     }
     
 
     // mv: Mover arquivos ou diretórios
-    private String mv(String source, String destination) {
-        Optional<Directory> sourceDir = currentDirectory.findSubdirectory(source);
-        Optional<File> sourceFile = currentDirectory.findFile(source);
+    private String mv(TerminalSession session, String source, String destination) {
+        Optional<Directory> sourceDir = session.getCurrentDirectory().findSubdirectory(source);
+        Optional<File> sourceFile = session.getCurrentDirectory().findFile(source);
     
-        Directory targetDir = findDirectoryByPath(destination);
+        Directory targetDir = findDirectoryByPath(session, destination);
         if (targetDir == null) {
-            return "mv: diretório de destino não encontrado: '" + destination + "'";
+            return fail(session, "mv: diretório de destino não encontrado: '" + destination + "'");
         }
     
         if (sourceDir.isPresent()) {
-            targetDir.addDirectory(sourceDir.get());
-            currentDirectory.getSubdirectories().remove(sourceDir.get());
+            if (targetDir.isWithin(sourceDir.get())) {
+                return fail(session, "mv: Não foi possível mover '" + source + "' para dentro de si mesmo");
+            }
+            session.getCurrentDirectory().moveDirectory(sourceDir.get(), targetDir);
             return "mv: Diretório '" + source + "' movido para '" + destination + "'";
         }
     
         if (sourceFile.isPresent()) {
-            targetDir.addFile(sourceFile.get());
-            currentDirectory.getFiles().remove(sourceFile.get());
+            session.getCurrentDirectory().moveFile(sourceFile.get(), targetDir);
             return "mv: Arquivo '" + source + "' movido para '" + destination + "'";
         }
     
-        return "mv: arquivo ou diretório não encontrado: '" + source + "'";
+        return fail(session, "mv: arquivo ou diretório não encontrado: '" + source + "'");
     }
     
     
-    private Directory findDirectoryByPath(String path) {
+    private Directory findDirectoryByPath(TerminalSession session, String path) {
         // Se o caminho começar com "~", começa a partir do diretório root (que simula o home)
-        Directory current = path.startsWith("~") ? root : (path.startsWith("/") ? root : currentDirectory);
+        Directory current = path.startsWith("~") ? session.getRoot() : (path.startsWith("/") ? session.getRoot() : session.getCurrentDirectory());
     
         // Remove o "~" ou "/" do início, caso existam
         if (path.startsWith("~") || path.startsWith("/")) {
@@ -727,167 +984,308 @@ public class TerminalService {
     
     
 
-    // diff: Compara arquivos
-    private String diff(String file1, String file2) {
-        Optional<File> f1 = currentDirectory.findFile(file1);
-        Optional<File> f2 = currentDirectory.findFile(file2);
-    
-        if (f1.isPresent() && f2.isPresent()) {
-            List<String> lines1 = Arrays.asList(f1.get().getContent().split("\n"));
-            List<String> lines2 = Arrays.asList(f2.get().getContent().split("\n"));
-    
-            StringBuilder result = new StringBuilder();
-            int maxLines = Math.max(lines1.size(), lines2.size());
-    
-            for (int i = 0; i < maxLines; i++) {
-                // Remove aspas do final de cada linha antes da comparação
-                String line1 = (i < lines1.size()) ? lines1.get(i).replaceAll("\"$", "") : "";
-                String line2 = (i < lines2.size()) ? lines2.get(i).replaceAll("\"$", "") : "";
-    
-                if (!line1.equals(line2)) {
-                    result.append("< " + line1 + "\n> " + line2 + "\n");
-                }
-            }
-            
-            return result.toString().isEmpty() ? "Nenhuma diferença encontrada" : result.toString().trim();
+    // diff: Compara dois arquivos pelo algoritmo de Myers e escreve as diferenças no formato unificado, um bloco
+    // por vez; com -r compara dois diretórios recursivamente (subárvores ainda compartilhadas pelo cp -r são puladas)
+    private void diff(TerminalSession session, List<String> args, OutputSink out) {
+        boolean recursive = args.get(0).equals("-r");
+        List<String> operands = recursive ? args.subList(1, args.size()) : args;
+        if (operands.size() < 2) {
+            out.write(fail(session, 2, "diff: missing operands"));
+            return;
+        }
+        String name1 = operands.get(0);
+        String name2 = operands.get(1);
+        LineWriter lines = new LineWriter(out);
+        if (recursive) {
+            diffDirectories(session, name1, name2, lines);
+            return;
+        }
+
+        Optional<File> f1 = session.getCurrentDirectory().findFile(name1);
+        Optional<File> f2 = session.getCurrentDirectory().findFile(name2);
+        if (f1.isEmpty() || f2.isEmpty()) {
+            String missing = f1.isEmpty() ? name1 : name2;
+            out.write(session.getCurrentDirectory().findSubdirectory(missing).isPresent()
+                    ? fail(session, 2, "diff: '" + missing + "' é um diretório (use diff -r)")
+                    : fail(session, "diff: Não foi possível comparar '" + name1 + "' e '" + name2 + "': arquivo não encontrado"));
+            return;
+        }
+        if (!diffFiles(name1, f1.get(), name2, f2.get(), lines)) {
+            lines.accept("Nenhuma diferença encontrada");
         }
-        
-        return "diff: Não foi possível comparar '" + file1 + "' e '" + file2 + "': arquivo não encontrado";
     }
-    
 
-    // zip: Recebe um nome de arquivo ZIP e uma lista de arquivos para compactar
-    private String zip(String[] args) {
-        System.out.println("DEBUG: Comando ZIP chamado com argumentos: " + Arrays.toString(args));
+    private void diffDirectories(TerminalSession session, String name1, String name2, LineWriter lines) {
+        Directory dir1 = findDirectoryByPath(session, name1);
+        Directory dir2 = findDirectoryByPath(session, name2);
+        if (dir1 == null || dir2 == null) {
+            lines.accept(fail(session, "diff: diretório não encontrado: '" + (dir1 == null ? name1 : name2) + "'"));
+            return;
+        }
+        TreeDiff.walk(dir1, dir2, new TreeDiff.Visitor() {
+            @Override
+            public void onlyBefore(String path, String name, boolean directory) {
+                lines.accept("Somente em " + (path.isEmpty() ? name1 : name1 + "/" + path) + ": " + name);
+            }
 
-        if (args.length < 2)
-            return "Erro: Nenhum arquivo especificado.";
+            @Override
+            public void onlyAfter(String path, String name, boolean directory) {
+                lines.accept("Somente em " + (path.isEmpty() ? name2 : name2 + "/" + path) + ": " + name);
+            }
 
-        String zipName = args[0]; // O primeiro argumento deve ser o nome do ZIP
-        if (!zipName.endsWith(".zip")) {
-            zipName += ".zip";
+            @Override
+            public void modified(String path, File a, File b) {
+                String pathA = TreeDiff.join(name1, path, a.getName());
+                String pathB = TreeDiff.join(name2, path, b.getName());
+                // O cabeçalho só sai se as linhas forem mesmo diferentes
+                boolean[] header = {false};
+                diffFiles(pathA, a, pathB, b, line -> {
+                    if (!header[0]) {
+                        header[0] = true;
+                        lines.accept("diff -r " + pathA + " " + pathB);
+                    }
+                    lines.accept(line);
+                });
+            }
+        });
+        if (lines.isEmpty()) {
+            lines.accept("Nenhuma diferença encontrada");
         }
+    }
 
-        // Criar um novo diretório para simular o ZIP
-        Directory zipDirectory = new Directory(zipName, currentDirectory);
-        System.out.println("DEBUG: Criando diretório '" + zipName + "' para armazenar arquivos compactados");
+    // Diferença unificada entre dois arquivos (3 linhas de contexto), lendo as linhas direto do conteúdo; arquivos
+    // que ainda compartilham o conteúdo nem são lidos. Retorna false se não houver diferença
+    private static boolean diffFiles(String name1, File file1, String name2, File file2, Consumer<String> out) {
+        if (file1.sameContent(file2)) {
+            return false;
+        }
+        FileContent content1 = file1.content();
+        FileContent content2 = file2.content();
+        // Remove aspas do final de cada linha antes da comparação
+        return LineDiff.unified(name1, i -> TextUtils.stripTrailingQuote(content1.line(i)), content1.visibleLineCount(),
+                name2, i -> TextUtils.stripTrailingQuote(content2.line(i)), content2.visibleLineCount(), 3, out);
+    }
 
-        boolean hasValidFiles = false;
-        List<String> arquivosParaCompactar = new ArrayList<>();
+    // Escreve linhas separadas por '\n' (sem quebra no final), como writeLines, à medida que chegam
+    private static final class LineWriter implements Consumer<String> {
+        private final OutputSink out;
+        private boolean empty = true;
 
-        for (int i = 1; i < args.length; i++) {
-            String[] arquivosSeparados = args[i].split("\\s+"); // Divide corretamente caso args[i] esteja concatenado
-            for (String file : arquivosSeparados) {
-                file = file.replaceAll("^\"|\"$", "").trim(); // Remove aspas no início e no fim
-                if (!file.isEmpty()) {
-                    arquivosParaCompactar.add(file);
-                }
+        LineWriter(OutputSink out) {
+            this.out = out;
+        }
+
+        @Override
+        public void accept(String line) {
+            if (!empty) {
+                out.write('\n');
             }
+            empty = false;
+            out.write(line);
         }
 
-        System.out.println("DEBUG: Arquivos extraídos corretamente: " + arquivosParaCompactar);
+        boolean isEmpty() {
+            return empty;
+        }
+    }
 
-        // 🔹 Processamento dos arquivos para compactação
-        for (String fileName : arquivosParaCompactar) {
-            System.out.println(
-                    "DEBUG: Buscando arquivo '" + fileName + "' no diretório '" + currentDirectory.getName() + "'");
+    // zip: Recebe um nome de arquivo ZIP e uma lista de arquivos para compactar; com -r os diretórios entram com
+    // todo o conteúdo. O resultado é um único arquivo com as entradas comprimidas (ArchiveFile)
+    private String zip(TerminalSession session, List<String> args) {
+        log.debug("Comando ZIP chamado com argumentos: {}", args);
 
-            Optional<File> file = currentDirectory.findFile(fileName);
+        boolean recursive = args.get(0).equals("-r");
+        if (recursive) {
+            args = args.subList(1, args.size());
+        }
+        if (args.size() < 2)
+            return fail(session, "Erro: Nenhum arquivo especificado.");
+
+        String zipName = args.get(0); // O primeiro argumento deve ser o nome do ZIP
+        if (!zipName.endsWith(".zip")) {
+            zipName += ".zip";
+        }
+
+        // Os argumentos já chegam separados e sem aspas pelo CommandLine
+        List<ArchiveFile.Source> entries = new ArrayList<>();
+        for (String name : args.subList(1, args.size())) {
+            Optional<File> file = session.getCurrentDirectory().findFile(name);
+            Optional<Directory> dir = session.getCurrentDirectory().findSubdirectory(name);
             if (file.isPresent()) {
-                // Criar uma cópia do arquivo dentro do ZIP
-                File copiedFile = new File(file.get().getName());
-                copiedFile.setContent(file.get().getContent());
-                zipDirectory.addFile(copiedFile);
-                System.out.println("DEBUG: Arquivo '" + fileName + "' copiado para '" + zipName + "'");
-                hasValidFiles = true;
+                entries.add(new ArchiveFile.Source(name, file.get()));
+            } else if (dir.isPresent() && recursive) {
+                TreeWalker.walk(dir.get(), new StringBuilder(name), ARCHIVE_COLLECTOR, entries);
             } else {
-                System.out.println("Aviso: O arquivo '" + fileName + "' não existe.");
+                log.debug("Aviso: '{}' não existe{}.", name, dir.isPresent() ? " como arquivo (use zip -r)" : "");
             }
         }
 
-        if (!hasValidFiles) {
-            return "Erro: Nenhum arquivo válido encontrado.";
+        if (entries.isEmpty()) {
+            return fail(session, "Erro: Nenhum arquivo válido encontrado.");
         }
 
-        // Adicionar o diretório ZIP ao sistema de arquivos virtual
-        currentDirectory.addDirectory(zipDirectory);
+        ArchiveFile archive = ArchiveFile.create(zipName, entries);
+        session.getCurrentDirectory().addFile(archive);
+        log.debug("{} entrada(s) compactada(s) em '{}' ({} bytes)", entries.size(), zipName, archive.length());
 
         return "Arquivos compactados em '" + zipName + "'";
     }
 
-    // unzip: Extrair arquivos de um ZIP
-    private String unzip(String zipName) {
+    // Entradas do zip -r: o diretório e, em pré-ordem, seus arquivos e subdiretórios; o estado é o caminho atual
+    private static final TreeWalker.Visitor<StringBuilder, List<ArchiveFile.Source>> ARCHIVE_COLLECTOR = new TreeWalker.Visitor<>() {
+        @Override
+        public List<ArchiveFile.Source> newChunk() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public StringBuilder copy(StringBuilder path) {
+            return new StringBuilder(path);
+        }
+
+        @Override
+        public void enter(Directory dir, int depth, boolean last, StringBuilder path, List<ArchiveFile.Source> out) {
+            if (depth > 0) {
+                path.append('/').append(dir.getName());
+            }
+            out.add(new ArchiveFile.Source(path + "/", null));
+            for (File file : dir.getFiles()) {
+                out.add(new ArchiveFile.Source(path + "/" + file.getName(), file));
+            }
+        }
+
+        @Override
+        public void exit(Directory dir, int depth, boolean last, StringBuilder path, List<ArchiveFile.Source> out) {
+            if (depth > 0) {
+                path.setLength(path.length() - dir.getName().length() - 1);
+            }
+        }
+    };
+
+    // unzip: Extrair arquivos de um ZIP, uma entrada de cada vez, recriando os diretórios do zip -r
+    private String unzip(TerminalSession session, String zipName) {
         if (!zipName.endsWith(".zip")) {
             zipName += ".zip";
         }
 
-        Optional<Directory> zipDirectory = currentDirectory.findSubdirectory(zipName);
+        Optional<File> zipFile = session.getCurrentDirectory().findFile(zipName);
 
-        if (zipDirectory.isEmpty()) {
-            return "unzip: cannot find '" + zipName + "'";
+        if (zipFile.isEmpty()) {
+            return fail(session, "unzip: cannot find '" + zipName + "'");
+        }
+        if (!(zipFile.get() instanceof ArchiveFile archive)) {
+            return fail(session, "unzip: '" + zipName + "' não é um arquivo compactado");
         }
 
-        Directory zipFolder = zipDirectory.get();
-        int extractedFiles = 0;
+        Directory target = session.getCurrentDirectory();
+        int[] extractedFiles = {0};
+        archive.extract(new ArchiveFile.Extractor() {
+            @Override
+            public void directory(String path) {
+                extractionDirectory(target, path);
+            }
+
+            @Override
+            public void file(String path, File file) {
+                // Extraindo arquivos de volta ao diretório atual
+                extractionDirectory(target, path.substring(0, path.lastIndexOf('/') + 1)).addFile(file);
+                extractedFiles[0]++;
+                log.debug("Arquivo '{}' extraído.", path);
+            }
+        });
+
+        // Removendo o ZIP após a extração
+        target.removeFile(archive);
+        return "unzip: " + extractedFiles[0] + " files extracted from " + zipName;
+    }
 
-        for (File file : zipFolder.getFiles()) {
-            // Extraindo arquivos de volta ao diretório atual
-            File extractedFile = new File(file.getName());
-            extractedFile.setContent(file.getContent());
-            currentDirectory.addFile(extractedFile);
-            extractedFiles++;
-            System.out.println("DEBUG: Arquivo '" + file.getName() + "' extraído.");
+    // Diretório "a/b/" abaixo de "base", criando "a" e "a/b" se ainda não existirem ("" é a própria base)
+    private static Directory extractionDirectory(Directory base, String path) {
+        Directory current = base;
+        for (String part : path.split("/")) {
+            if (!part.isEmpty()) {
+                current = current.addDirectoryIfAbsent(new Directory(part, current));
+            }
         }
+        return current;
+    }
+
+    // Versões da árvore:
 
-        // Removendo a pasta ZIP após a extração
-        currentDirectory.getSubdirectories().remove(zipFolder);
-        return "unzip: " + extractedFiles + " files extracted from " + zipName;
+    // snapshot: Salva a árvore com um nome, em O(1) (cópia preguiçosa da raiz); sem nome, lista os snapshots
+    // salvos; "snapshot diff a [b]" compara dois snapshots (ou um snapshot e a árvore atual)
+    private String snapshot(TerminalSession session, List<String> args) {
+        Map<String, Directory> snapshots = session.getSnapshots();
+        if (args.isEmpty()) {
+            return snapshots.isEmpty() ? "snapshot: nenhum snapshot salvo" : String.join("\n", snapshots.keySet());
+        }
+        if (args.get(0).equals("diff")) {
+            if (args.size() < 2) {
+                return fail(session, 2, "snapshot: uso correto: snapshot diff [nome1] [nome2]");
+            }
+            Directory before = snapshots.get(args.get(1));
+            Directory after = args.size() > 2 ? snapshots.get(args.get(2)) : session.getRoot();
+            if (before == null || after == null) {
+                String missing = before == null ? args.get(1) : args.get(2);
+                return fail(session, "snapshot: snapshot não encontrado: '" + missing + "'");
+            }
+            List<String> changes = TreeDiff.changes(before, after, "~");
+            return changes.isEmpty() ? "snapshot: nenhuma diferença" : String.join("\n", changes);
+        }
+
+        String name = args.get(0);
+        snapshots.put(name, session.getRoot().lazyCopy("~"));
+        return "snapshot: árvore salva como '" + name + "'";
+    }
+
+    // restore: Volta a árvore para um snapshot em O(1); o snapshot continua salvo e pode ser restaurado de novo
+    private String restore(TerminalSession session, String name) {
+        Directory snapshot = session.getSnapshots().get(name);
+        if (snapshot == null) {
+            return fail(session, "restore: snapshot não encontrado: '" + name + "'");
+        }
+        session.getRoot().replaceContent(snapshot);
+        session.setCurrentDirectory(session.getRoot());
+        return "restore: árvore restaurada do snapshot '" + name + "'";
     }
 
     // Extras:
 
     // history: Exibir histórico de comandos
-    private String history() {
-        return String.join("\n", commandHistory);
+    private void history(TerminalSession session, OutputSink out) {
+        writeLines(session.getCommandHistory().stream(), out);
     }
 
     // exit: Encerrar a sessão do terminal e resetar os dados
-    private void resetTerminal() {
-        System.out.println("DEBUG: Resetando terminal...");
+    private void resetTerminal(TerminalSession session) {
+        log.debug("Resetando terminal...");
 
         // Voltar para o diretório raiz
-        currentDirectory = root;
+        session.setCurrentDirectory(session.getRoot());
 
-        // Limpar todos os arquivos e diretórios criados na sessão
-        root.getSubdirectories().clear();
-        root.getFiles().clear();
+        // Descartar os arquivos e diretórios criados na sessão (troca a árvore de uma vez, sem removê-los um a um)
+        session.getRoot().replaceContent(new Directory("~", null));
+        session.getSnapshots().clear();
 
         // Limpar histórico de comandos
-        commandHistory.clear();
+        session.getCommandHistory().clear();
 
-        System.out.println("DEBUG: Terminal resetado.");
+        log.debug("Terminal resetado.");
     }
 
-    // Métodos Auxiliares:
-    // calculateDirectorySize: Calcular o tamanho de um diretório
-    private int calculateDirectorySize(Directory dir) {
-        int size = 0;
-
-        System.out.println("DEBUG: Verificando arquivos dentro do diretório '" + dir.getName() + "'");
-
-        for (File file : dir.getFiles()) {
-            int fileSize = file.getContent().length();
-            System.out.println("DEBUG: Arquivo '" + file.getName() + "' tamanho: " + fileSize + " bytes");
-            size += fileSize;
-        }
-
-        for (Directory subdir : dir.getSubdirectories()) {
-            size += calculateDirectorySize(subdir);
+    // trace: Liga ou desliga o log detalhado (DEBUG) apenas para esta sessão
+    private String trace(TerminalSession session, String mode) {
+        if (mode.equals("on")) {
+            session.setTrace(true);
+        } else if (mode.equals("off")) {
+            session.setTrace(false);
+        } else if (!mode.isEmpty()) {
+            return fail(session, 2, "trace: uso correto: trace [on|off]");
         }
-
-        System.out.println("DEBUG: Tamanho total do diretório '" + dir.getName() + "': " + size + " bytes");
-        return size;
+        return "trace: " + (session.isTrace() ? "on" : "off");
     }
+
+    // Métodos Auxiliares:
     // getHelpMessage: Obter mensagem de ajuda
     private String getHelpMessage() {
         return "Comandos disponíveis:\n"
@@ -902,18 +1300,25 @@ public class TerminalService {
                 + "  - rm [arquivo]: Remove um arquivo ou diretório\n"
                 + "  - ls: Lista arquivos e diretórios\n"
                 + "  - cd [dir]: Muda para o diretório especificado\n"
-                + "  - find [dir] -name [nome]: Busca arquivos por nome\n"
+                + "  - find [dir] -name [padrao]: Busca arquivos por nome (aceita * ? [...])\n"
+                + "  - find [dir] -regex [expressao]: Busca arquivos cujo nome casa com a expressão regular\n"
                 + "  - grep [termo] [arquivo]: Procura por um termo dentro de um arquivo\n"
+                + "  - grep -r [termo] [dir]: Procura por um termo em todos os arquivos do diretório\n"
                 + "  - chmod [permissão] [arquivo]: Modifica permissões de um arquivo (simulado)\n"
                 + "  - chown [dono] [arquivo]: Modifica o dono de um arquivo (simulado)\n"
                 + "  - stat [arquivo]: Exibe informações detalhadas sobre um arquivo\n"
                 + "  - du [diretório]: Exibe o tamanho total de um diretório\n"
-                + "  - cp [origem] [destino]: Copia arquivos ou diretórios\n"
+                + "  - cp [-r] [origem] [destino]: Copia arquivos ou diretórios (com todo o conteúdo)\n"
                 + "  - mv [origem] [destino]: Move arquivos ou diretórios\n"
-                + "  - diff [arquivo1] [arquivo2]: Compara dois arquivos e exibe as diferenças\n"
-                + "  - zip [arquivo.zip] [itens]: Realiza a compactação de arquivos\n"
+                + "  - diff [-r] [arquivo1] [arquivo2]: Compara dois arquivos (ou diretórios, com -r) e exibe as diferenças no formato unificado\n"
+                + "  - zip [-r] [arquivo.zip] [itens]: Compacta arquivos (com -r, também diretórios inteiros)\n"
                 + "  - unzip [arquivo.zip]: Realiza a extração de um arquivo ZIP\n"
+                + "  - snapshot [nome]: Salva a árvore atual com esse nome (sem nome, lista os snapshots salvos)\n"
+                + "  - snapshot diff [nome1] [nome2]: Lista o que mudou entre dois snapshots (ou entre um e a árvore atual)\n"
+                + "  - restore [nome]: Volta a árvore para o snapshot salvo\n"
                 + "  - history: Exibe o histórico de comandos digitados\n"
+                + "  - trace [on|off]: Liga ou desliga o log detalhado desta sessão\n"
+                + "  - cmd1 | cmd2: Pipe; cat, echo, grep [termo], head [n], tail [n] e wc leem a saída do anterior\n"
                 + "  - exit: Encerra a sessão do terminal e reseta os dados\n";
     }
 
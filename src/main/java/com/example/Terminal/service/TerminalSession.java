@@ -0,0 +1,121 @@
+package com.example.Terminal.service;
+
+import com.example.Terminal.index.ContentIndex;
+import com.example.Terminal.index.NameIndex;
+import com.example.Terminal.model.Directory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Estado de um terminal: cada cliente tem sua própria árvore de arquivos, diretório atual e histórico
+public class TerminalSession {
+    private final String id;
+    // Diretório raiz do sistema de arquivos da sessão
+    private final Directory root;
+    // Índice de nomes da árvore, usado pelo find
+    private final NameIndex nameIndex = new NameIndex();
+    // Índice de trigramas do conteúdo dos arquivos, usado pelo grep -r
+    private final ContentIndex contentIndex = new ContentIndex();
+    // Diretório atual do terminal
+    private volatile Directory currentDirectory;
+    // Histórico de comandos da sessão (inserção O(1), sem copiar a lista a cada comando)
+    private final Collection<String> commandHistory = new ConcurrentLinkedQueue<>();
+    // Permissões e proprietários simulados dos arquivos
+    private final Map<String, String> permissions = new ConcurrentHashMap<>();
+    // Versões salvas da árvore (snapshot/restore), por nome: cópias preguiçosas da raiz, que só ganham nós
+    // próprios nos caminhos que a sessão alterar depois
+    private final Map<String, Directory> snapshots = new ConcurrentSkipListMap<>();
+    // Log detalhado (DEBUG) ligado apenas para esta sessão
+    private volatile boolean trace;
+    // Instante (ms) do último acesso, usado para expirar sessões ociosas
+    private volatile long lastAccess;
+    // Status do último comando (como o $? do shell): 0 = sucesso; usado pelo && dos scripts
+    private volatile int exitStatus;
+    // Com a persistência ligada, os comandos que alteram a árvore rodam com o lock exclusivo (um por vez, na ordem
+    // do log) e o snapshot usa o compartilhado para gravar a sessão sem nenhuma alteração pela metade
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    // Comandos aguardando execução no modo virtual do CommandExecutor (mantém a ordem dentro da sessão)
+    private final SerialQueue commandQueue = new SerialQueue();
+
+    public TerminalSession(String id) {
+        this.id = id;
+        this.root = new Directory("~", null);
+        this.root.addListener(nameIndex);
+        this.root.addListener(contentIndex);
+        this.currentDirectory = root;
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Directory getRoot() {
+        return root;
+    }
+
+    public NameIndex getNameIndex() {
+        return nameIndex;
+    }
+
+    public ContentIndex getContentIndex() {
+        return contentIndex;
+    }
+
+    public Directory getCurrentDirectory() {
+        return currentDirectory;
+    }
+
+    public void setCurrentDirectory(Directory currentDirectory) {
+        this.currentDirectory = currentDirectory;
+    }
+
+    public Collection<String> getCommandHistory() {
+        return commandHistory;
+    }
+
+    public Map<String, String> getPermissions() {
+        return permissions;
+    }
+
+    public Map<String, Directory> getSnapshots() {
+        return snapshots;
+    }
+
+    public boolean isTrace() {
+        return trace;
+    }
+
+    public void setTrace(boolean trace) {
+        this.trace = trace;
+    }
+
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    public void touch() {
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    public int getExitStatus() {
+        return exitStatus;
+    }
+
+    public void setExitStatus(int exitStatus) {
+        this.exitStatus = exitStatus;
+    }
+
+    public ReadWriteLock getStateLock() {
+        return stateLock;
+    }
+
+    SerialQueue getCommandQueue() {
+        return commandQueue;
+    }
+}
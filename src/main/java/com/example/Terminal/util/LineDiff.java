@@ -0,0 +1,339 @@
+package com.example.Terminal.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+// Diferença entre duas sequências de linhas pelo algoritmo de Myers (O(ND), D = linhas alteradas), na versão de
+// espaço linear: a "cobra do meio" divide cada trecho em dois menores, então a memória fica O(N + M) mesmo com
+// muitas diferenças. O começo e o fim iguais são descartados antes (o caso comum: arquivos grandes com poucas
+// alterações); das linhas restantes guarda-se o hash, e só linhas com o mesmo hash são comparadas de fato.
+// As alterações saem em ordem para um Listener, então a saída pode ser escrita enquanto o resto ainda é calculado
+public final class LineDiff {
+
+    private LineDiff() {
+    }
+
+    public interface Listener {
+        // "count" linhas iguais nos dois lados
+        void equal(int count);
+
+        // "deleted" linhas só do primeiro lado no lugar de "inserted" linhas só do segundo (ao menos uma das duas > 0)
+        void change(int deleted, int inserted);
+    }
+
+    // Trecho ainda a comparar e trecho igual (fim comum de um trecho já dividido) que sai depois dele
+    private record Range(int a0, int a1, int b0, int b1) {
+    }
+
+    private record Common(int count) {
+    }
+
+    public static void diff(IntFunction<String> a, int countA, IntFunction<String> b, int countB, Listener listener) {
+        Coalescer out = new Coalescer(listener);
+        int prefix = 0;
+        while (prefix < countA && prefix < countB && a.apply(prefix).equals(b.apply(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < countA - prefix && suffix < countB - prefix
+                && a.apply(countA - 1 - suffix).equals(b.apply(countB - 1 - suffix))) {
+            suffix++;
+        }
+        out.equal(prefix);
+
+        compare(new Lines(a, prefix, countA - prefix - suffix), new Lines(b, prefix, countB - prefix - suffix), out);
+
+        out.equal(suffix);
+        out.flush();
+    }
+
+    // Trecho do meio de um dos lados, lido uma vez só: as linhas e o hash de cada uma
+    private static final class Lines {
+        final String[] text;
+        final int[] hash;
+
+        Lines(IntFunction<String> source, int from, int count) {
+            text = new String[count];
+            hash = new int[count];
+            for (int i = 0; i < count; i++) {
+                text[i] = source.apply(from + i);
+                hash[i] = text[i].hashCode();
+            }
+        }
+
+        int size() {
+            return text.length;
+        }
+
+        boolean same(int i, Lines other, int j) {
+            return hash[i] == other.hash[j] && text[i].equals(other.text[j]);
+        }
+    }
+
+    // Divide e conquista com uma pilha explícita (esquerda antes da direita), para sair na ordem dos arquivos
+    private static void compare(Lines a, Lines b, Coalescer out) {
+        int offset = (a.size() + b.size() + 1) / 2 + 1;
+        int[] forward = new int[2 * offset + 1];
+        int[] backward = new int[2 * offset + 1];
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(new Range(0, a.size(), 0, b.size()));
+        while (!stack.isEmpty()) {
+            Object task = stack.pop();
+            if (task instanceof Common common) {
+                out.equal(common.count());
+                continue;
+            }
+            Range range = (Range) task;
+            int a0 = range.a0(), a1 = range.a1(), b0 = range.b0(), b1 = range.b1();
+            int prefix = 0;
+            while (a0 + prefix < a1 && b0 + prefix < b1 && a.same(a0 + prefix, b, b0 + prefix)) {
+                prefix++;
+            }
+            out.equal(prefix);
+            a0 += prefix;
+            b0 += prefix;
+            int suffix = 0;
+            while (a1 - suffix > a0 && b1 - suffix > b0 && a.same(a1 - 1 - suffix, b, b1 - 1 - suffix)) {
+                suffix++;
+            }
+            a1 -= suffix;
+            b1 -= suffix;
+            if (suffix > 0) {
+                stack.push(new Common(suffix));
+            }
+
+            int[] split = a0 == a1 || b0 == b1 ? null : middleSnake(a, a0, a1, b, b0, b1, forward, backward, offset);
+            if (split == null || (split[0] == a0 && split[1] == b0) || (split[0] == a1 && split[1] == b1)) {
+                out.change(a1 - a0, b1 - b0);
+                continue;
+            }
+            stack.push(new Range(split[0], a1, split[1], b1));
+            stack.push(new Range(a0, split[0], b0, split[1]));
+        }
+    }
+
+    // Busca o caminho mais curto pelas duas pontas ao mesmo tempo; onde os caminhos se encontram fica o ponto que
+    // divide o trecho (posição nos dois lados), ou null se não houver nada em comum. "forward" e "backward" são
+    // reaproveitados entre as chamadas (cabem o maior trecho, centrados em "offset"): só as diagonais de cada
+    // passo são iniciadas, então o custo não inclui limpar os vetores inteiros
+    private static int[] middleSnake(Lines a, int a0, int a1, Lines b, int b0, int b1, int[] forward, int[] backward, int offset) {
+        int n = a1 - a0;
+        int m = b1 - b0;
+        int maxD = (n + m + 1) / 2;
+        forward[offset - 1] = -1;
+        forward[offset + 1] = 0;
+        backward[offset - 1] = -1;
+        backward[offset + 1] = 0;
+        int delta = n - m;
+        // Com delta ímpar o encontro é detectado no passo para frente; com delta par, no passo para trás
+        boolean odd = (delta & 1) != 0;
+        // Diagonais que já saíram da grade deixam de ser visitadas
+        int forwardStart = 0, forwardEnd = 0, backwardStart = 0, backwardEnd = 0;
+
+        for (int d = 0; d < maxD; d++) {
+            if (d > 0) {
+                // Diagonais alcançáveis pela primeira vez neste passo: ainda sem valor (-1)
+                forward[offset - d - 1] = -1;
+                forward[offset + d + 1] = -1;
+                backward[offset - d - 1] = -1;
+                backward[offset + d + 1] = -1;
+            }
+            for (int k = -d + forwardStart; k <= d - forwardEnd; k += 2) {
+                int index = offset + k;
+                int x = k == -d || (k != d && forward[index - 1] < forward[index + 1])
+                        ? forward[index + 1] : forward[index - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a.same(a0 + x, b, b0 + y)) {
+                    x++;
+                    y++;
+                }
+                forward[index] = x;
+                if (x > n) {
+                    forwardEnd += 2;
+                } else if (y > m) {
+                    forwardStart += 2;
+                } else if (odd) {
+                    // O caminho de trás só chegou até o passo d - 1
+                    int other = delta - k;
+                    if (Math.abs(other) <= d && backward[offset + other] != -1 && x >= n - backward[offset + other]) {
+                        return new int[] {a0 + x, b0 + y};
+                    }
+                }
+            }
+            for (int k = -d + backwardStart; k <= d - backwardEnd; k += 2) {
+                int index = offset + k;
+                int x = k == -d || (k != d && backward[index - 1] < backward[index + 1])
+                        ? backward[index + 1] : backward[index - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a.same(a1 - 1 - x, b, b1 - 1 - y)) {
+                    x++;
+                    y++;
+                }
+                backward[index] = x;
+                if (x > n) {
+                    backwardEnd += 2;
+                } else if (y > m) {
+                    backwardStart += 2;
+                } else if (!odd) {
+                    int other = delta - k;
+                    if (Math.abs(other) <= d + 1 && forward[offset + other] != -1) {
+                        int forwardX = forward[offset + other];
+                        int forwardY = forwardX - other;
+                        if (forwardX >= n - x) {
+                            return new int[] {a0 + forwardX, b0 + forwardY};
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    // Junta alterações vizinhas (a divisão pode separar um mesmo bloco em vários pedaços) e descarta trechos vazios
+    private static final class Coalescer {
+        private final Listener listener;
+        private int deleted;
+        private int inserted;
+
+        Coalescer(Listener listener) {
+            this.listener = listener;
+        }
+
+        void equal(int count) {
+            if (count > 0) {
+                flush();
+                listener.equal(count);
+            }
+        }
+
+        void change(int deleted, int inserted) {
+            this.deleted += deleted;
+            this.inserted += inserted;
+        }
+
+        void flush() {
+            if (deleted > 0 || inserted > 0) {
+                listener.change(deleted, inserted);
+                deleted = 0;
+                inserted = 0;
+            }
+        }
+    }
+
+    // Diferença no formato unificado (diff -u): cabeçalhos "---"/"+++" e blocos "@@ -a,n +b,m @@" com "context"
+    // linhas iguais em volta de cada alteração. Cada bloco é escrito assim que termina, então só o bloco atual
+    // fica em memória. Retorna false (sem escrever nada) se as sequências forem iguais
+    public static boolean unified(String nameA, IntFunction<String> a, int countA, String nameB, IntFunction<String> b,
+                                  int countB, int context, Consumer<String> out) {
+        Hunks hunks = new Hunks(nameA, a, nameB, b, context, out);
+        diff(a, countA, b, countB, hunks);
+        hunks.finish();
+        return hunks.changed;
+    }
+
+    private static final class Hunks implements Listener {
+        private final String nameA;
+        private final IntFunction<String> a;
+        private final String nameB;
+        private final IntFunction<String> b;
+        private final int context;
+        private final Consumer<String> out;
+        private boolean changed;
+        // Próxima linha de cada lado
+        private int positionA;
+        private int positionB;
+        // Linhas iguais desde a última alteração, ainda não escritas
+        private int pendingEqual;
+        // Bloco aberto (lines == null quando não há)
+        private List<String> lines;
+        private int startA;
+        private int startB;
+        private int countA;
+        private int countB;
+
+        Hunks(String nameA, IntFunction<String> a, String nameB, IntFunction<String> b, int context, Consumer<String> out) {
+            this.nameA = nameA;
+            this.a = a;
+            this.nameB = nameB;
+            this.b = b;
+            this.context = context;
+            this.out = out;
+        }
+
+        @Override
+        public void equal(int count) {
+            pendingEqual += count;
+            positionA += count;
+            positionB += count;
+        }
+
+        @Override
+        public void change(int deleted, int inserted) {
+            if (lines != null && pendingEqual > 2 * context) {
+                // Intervalo grande demais: fecha o bloco atual e abre outro
+                addContext(positionA - pendingEqual, context);
+                close();
+            }
+            if (lines == null) {
+                int lead = Math.min(context, pendingEqual);
+                lines = new ArrayList<>();
+                startA = positionA - lead;
+                startB = positionB - lead;
+                countA = 0;
+                countB = 0;
+                addContext(startA, lead);
+            } else {
+                addContext(positionA - pendingEqual, pendingEqual);
+            }
+            pendingEqual = 0;
+            for (int i = 0; i < deleted; i++) {
+                lines.add("-" + a.apply(positionA + i));
+            }
+            for (int i = 0; i < inserted; i++) {
+                lines.add("+" + b.apply(positionB + i));
+            }
+            countA += deleted;
+            countB += inserted;
+            positionA += deleted;
+            positionB += inserted;
+        }
+
+        void finish() {
+            if (lines != null) {
+                addContext(positionA - pendingEqual, Math.min(context, pendingEqual));
+                close();
+            }
+        }
+
+        private void addContext(int from, int count) {
+            for (int i = 0; i < count; i++) {
+                lines.add(" " + a.apply(from + i));
+            }
+            countA += count;
+            countB += count;
+        }
+
+        private void close() {
+            if (!changed) {
+                changed = true;
+                out.accept("--- " + nameA);
+                out.accept("+++ " + nameB);
+            }
+            out.accept("@@ -" + range(startA, countA) + " +" + range(startB, countB) + " @@");
+            lines.forEach(out);
+            lines = null;
+        }
+
+        // Como no diff: "início,quantidade", sem a quantidade quando é 1; trecho vazio indica a linha anterior
+        private static String range(int start, int count) {
+            if (count == 1) {
+                return String.valueOf(start + 1);
+            }
+            return (count == 0 ? start : start + 1) + "," + count;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.Terminal.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Operações de texto usadas pelos comandos, feitas com varreduras de caracteres em vez de
+// String.replaceAll/split com regex (que compilam um Pattern a cada chamada)
+public final class TextUtils {
+
+    private TextUtils() {
+    }
+
+    // Remove uma aspa dupla do início e uma do fim, se houver (equivale a replaceAll("^\"|\"$", ""): como o "$"
+    // da regex, a aspa do fim pode vir antes de uma quebra de linha final, que é mantida)
+    public static String stripQuotes(String text) {
+        int start = !text.isEmpty() && text.charAt(0) == '"' ? 1 : 0;
+        int quote = endOfText(text) - 1;
+        if (quote >= start && text.charAt(quote) == '"') {
+            return text.substring(start, quote) + text.substring(quote + 1);
+        }
+        return text.substring(start);
+    }
+
+    // Remove uma aspa dupla do fim, se houver (equivale a replaceAll("\"$", ""), inclusive antes de uma quebra de
+    // linha final)
+    public static String stripTrailingQuote(String text) {
+        int quote = endOfText(text) - 1;
+        return quote >= 0 && text.charAt(quote) == '"' ? text.substring(0, quote) + text.substring(quote + 1) : text;
+    }
+
+    // Posição onde o "$" de uma regex casa antes do fim: antes da quebra de linha final ("\r\n", '\n', '\r',
+    // '\u0085', '\u2028' ou '\u2029'), se houver
+    private static int endOfText(String text) {
+        int end = text.length();
+        if (end >= 2 && text.charAt(end - 2) == '\r' && text.charAt(end - 1) == '\n') {
+            return end - 2;
+        }
+        if (end >= 1) {
+            char last = text.charAt(end - 1);
+            if (last == '\n' || last == '\r' || last == '\u0085' || last == '\u2028' || last == '\u2029') {
+                return end - 1;
+            }
+        }
+        return end;
+    }
+
+    // Quantidade de caracteres diferentes de "ignored" (equivale a replaceAll("\"", "").length() para aspas)
+    public static int lengthWithout(String text, char ignored) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ignored) count++;
+        }
+        return text.length() - count;
+    }
+
+    // Separa as linhas por '\n' como split("\n"): linhas vazias no final são descartadas
+    public static List<String> splitLines(String text) {
+        return splitLines(text, Integer.MAX_VALUE);
+    }
+
+    // Como splitLines, mas para de ler depois de "limit" linhas (head não precisa percorrer o resto do texto)
+    public static List<String> splitLines(String text, int limit) {
+        List<String> lines = new ArrayList<>();
+        if (limit <= 0) {
+            return lines;
+        }
+        if (text.isEmpty()) {
+            lines.add("");
+            return lines;
+        }
+        int start = 0;
+        int lastNonEmpty = 0;
+        while (start <= text.length() && lines.size() < limit) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) end = text.length();
+            lines.add(text.substring(start, end));
+            if (end > start) lastNonEmpty = lines.size();
+            start = end + 1;
+        }
+        if (start > text.length() || onlyLineBreaks(text, start)) {
+            // Não há mais texto depois destas linhas: descarta as linhas vazias finais, como String.split
+            lines.subList(lastNonEmpty, lines.size()).clear();
+        }
+        return lines;
+    }
+
+    private static boolean onlyLineBreaks(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) != '\n') return false;
+        }
+        return true;
+    }
+
+    // Todas as sequências de 3 caracteres do texto (vazio se o texto for menor que isso)
+    public static Set<String> trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    // Contagem do wc em uma única passada, ignorando aspas duplas
+    public static Counts count(String text) {
+        return new Counter().add(text).counts();
+    }
+
+    // Contagem do wc feita aos poucos (ex.: linhas chegando por um pipe); somar os pedaços dá o mesmo que
+    // contar o texto inteiro de uma vez
+    public static final class Counter {
+        private long lines;
+        private long words;
+        private long chars;
+        private boolean inWord;
+        private boolean lineOpen;
+        private char previous;
+
+        public Counter add(CharSequence text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') continue;
+                chars++;
+
+                if (c == '\n' || c == '\r') {
+                    // "\r\n" conta como um único fim de linha, como String.lines()
+                    if (!(c == '\n' && previous == '\r')) lines++;
+                    lineOpen = false;
+                } else {
+                    lineOpen = true;
+                }
+
+                boolean whitespace = c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+                if (!whitespace && !inWord) words++;
+                inWord = !whitespace;
+                previous = c;
+            }
+            return this;
+        }
+
+        public Counts counts() {
+            return new Counts(lineOpen ? lines + 1 : lines, words, chars);
+        }
+    }
+
+    public record Counts(long lines, long words, long chars) {
+    }
+}
@@ -1,17 +1,55 @@
 document.addEventListener("DOMContentLoaded", async function () { 
     const terminalHistory = document.querySelector(".history");
-    const apiUrl = "http://localhost:8080/api/terminal/execute";
+    // A saída chega em partes (cat/tree grandes aparecem enquanto ainda estão sendo enviados). Os comandos vão
+    // pelo WebSocket quando ele está aberto; o endpoint HTTP fica como alternativa
+    const apiUrl = "http://localhost:8080/api/terminal/execute/stream";
+    const socketUrl = "ws://localhost:8080/ws/terminal";
     let currentPrompt = "user@terminal:~ $";
+    // Token da sessão do terminal (cada aba tem sua própria árvore de arquivos)
+    let sessionToken = sessionStorage.getItem("terminalSession");
     const commandList = [
         "pwd", "mkdir", "rmdir", "tree", "rename", "touch", "cat",
         "rm", "ls", "cd", "find", "grep", "chmod", "chown", "stat",
         "du", "cp", "mv", "diff", "zip", "unzip", "history", "tail",
-        "wc", "head", "help", "exit", "echo","arquivo.txt","Hello World", "pasta","teste"
+        "wc", "head", "help", "exit", "echo", "trace","arquivo.txt","Hello World", "pasta","teste"
     ];
     let commandHistory = [];  // Histórico de comandos
     let historyIndex = -1;  // Índice do histórico
+    let socket = null;  // WebSocket aberto (null enquanto desconectado)
+    let runningCommand = null;  // Comando enviado pelo WebSocket que ainda não recebeu o "done"
     // Criar o primeiro prompt assim que a página carregar
     createNewPrompt();
+    connectSocket();
+
+    function connectSocket() {
+        const ws = new WebSocket(socketUrl + (sessionToken ? "?session=" + encodeURIComponent(sessionToken) : ""));
+        ws.onopen = () => { socket = ws; };
+        ws.onmessage = (event) => handleFrame(JSON.parse(event.data));
+        ws.onclose = () => {
+            socket = null;
+            if (runningCommand) {
+                writeOutput(runningCommand.output, "\nConexão com o servidor encerrada");
+                runningCommand.resolve();
+                runningCommand = null;
+            }
+            setTimeout(connectSocket, 3000); // Tenta reconectar; enquanto isso os comandos vão por HTTP
+        };
+    }
+
+    // Quadros do servidor: ready (ao conectar), output (partes da saída), done (fim do comando) e error
+    function handleFrame(frame) {
+        if (frame.session) saveToken(frame.session);
+        if (frame.path) currentPrompt = `user@terminal:${frame.path} $`;
+
+        if (frame.type === "output" && runningCommand) {
+            writeOutput(runningCommand.output, frame.data);
+        } else if (frame.type === "done" && runningCommand) {
+            runningCommand.resolve();
+            runningCommand = null;
+        } else if (frame.type === "error") {
+            console.error("Erro no WebSocket:", frame.message);
+        }
+    }
 
     function focusInput() {
         const activeInput = document.querySelector(".cmd-input");
@@ -72,26 +110,53 @@ document.addEventListener("DOMContentLoaded", async function () {
         }
     
         try {
-            const response = await fetch(apiUrl, {
-                method: "POST",
-                headers: { "Content-Type": "text/plain" },
-                body: command,
-            });
-    
-            const output = await response.text();
-            addToHistory(command, output);
-    
-            // Agora espera a atualização do caminho antes de criar o próximo prompt
-            await updatePrompt();
+            const output = { entry: addToHistory(command, ""), pending: "" };
+            if (socket) {
+                // O "done" já traz o caminho atual, sem a requisição extra do prompt
+                await new Promise((resolve) => {
+                    runningCommand = { output, resolve };
+                    socket.send(command);
+                });
+            } else {
+                await executeOverHttp(command, output);
+                // Agora espera a atualização do caminho antes de criar o próximo prompt
+                await updatePrompt();
+            }
             await createNewPrompt();
         } catch (error) {
             console.error("Erro ao processar comando:", error);
             addToHistory(command, "Erro ao conectar com o servidor: " + error.message);
         }
     }
+
+    async function executeOverHttp(command, output) {
+        const response = await fetch(apiUrl, {
+            method: "POST",
+            headers: sessionHeaders({ "Content-Type": "text/plain" }),
+            body: command,
+        });
+        saveSession(response);
+
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        while (true) {
+            const { done, value } = await reader.read();
+            if (done) break;
+            writeOutput(output, decoder.decode(value, { stream: true }));
+        }
+        writeOutput(output, decoder.decode());
+    }
+
+    // Espaços no fim de cada parte ficam pendentes até a próxima: no final equivale ao trim() da saída
+    function writeOutput(output, chunk) {
+        const text = output.pending + chunk;
+        const end = text.trimEnd().length;
+        appendOutput(output.entry, text.slice(0, end));
+        output.pending = text.slice(end);
+    }
     
     
-    async function addToHistory(command, output) {
+    function addToHistory(command, output) {
         const commandContainer = document.createElement("div");
         commandContainer.classList.add("history-entry");
 
@@ -101,13 +166,7 @@ document.addEventListener("DOMContentLoaded", async function () {
         userPrompt.innerHTML = `<span class="prompt">${currentPrompt}</span> ${command}`;
 
         commandContainer.appendChild(userPrompt);
-
-        if (output.trim()) {
-            const outputLine = document.createElement("pre");
-            outputLine.classList.add("command-output");
-            outputLine.textContent = output;
-            commandContainer.appendChild(outputLine);
-        }
+        appendOutput(commandContainer, output);
 
         terminalHistory.appendChild(commandContainer);
 
@@ -115,6 +174,20 @@ document.addEventListener("DOMContentLoaded", async function () {
         createNewPrompt();
 
         commandContainer.scrollIntoView({ behavior: "smooth" });
+        return commandContainer;
+    }
+
+    // Acrescenta texto ao bloco de saída da entrada do histórico, criando o bloco no primeiro texto visível
+    function appendOutput(commandContainer, text) {
+        let outputLine = commandContainer.querySelector(".command-output");
+        if (!outputLine) {
+            text = text.trimStart();
+            if (!text) return;
+            outputLine = document.createElement("pre");
+            outputLine.classList.add("command-output");
+            commandContainer.appendChild(outputLine);
+        }
+        outputLine.append(text);
     }
 
     async function createNewPrompt() {
@@ -143,8 +216,11 @@ document.addEventListener("DOMContentLoaded", async function () {
 
     async function updatePrompt() {
         try {
-            const response = await fetch("http://localhost:8080/api/terminal/current-path");
+            const response = await fetch("http://localhost:8080/api/terminal/current-path", {
+                headers: sessionHeaders({}),
+            });
             if (!response.ok) throw new Error("Erro ao obter caminho atual");
+            saveSession(response);
             const currentPath = await response.text();
             currentPrompt = `user@terminal:${currentPath} $`; // 🔥 Atualiza o caminho corretamente
         } catch (error) {
@@ -152,6 +228,22 @@ document.addEventListener("DOMContentLoaded", async function () {
         }
     }
     
+    function sessionHeaders(headers) {
+        if (sessionToken) headers["X-Terminal-Session"] = sessionToken;
+        return headers;
+    }
+
+    function saveSession(response) {
+        saveToken(response.headers.get("X-Terminal-Session"));
+    }
+
+    function saveToken(token) {
+        if (token && token !== sessionToken) {
+            sessionToken = token;
+            sessionStorage.setItem("terminalSession", token);
+        }
+    }
+
     function autocompleteCommand(inputElement) {
         const typedText = inputElement.value.trim().toLowerCase();
         if (!typedText) return;
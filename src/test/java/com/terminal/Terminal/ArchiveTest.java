@@ -0,0 +1,108 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.model.ArchiveFile;
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.File;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveTest {
+
+	private final TerminalService service = TerminalFixtures.newService();
+	private TerminalSession session;
+
+	@BeforeEach
+	void createTree() {
+		session = new TerminalSession("zip");
+		TerminalFixtures.run(service, session, "mkdir docs", "mkdir docs/old", "mkdir docs/vazio", "cd docs",
+				"echo 'linha repetida' > a.txt", "cd old", "echo 'antigo' > b.txt", "cd ~", "echo 'raiz' > r.txt");
+		File big = session.getRoot().findSubdirectory("docs").orElseThrow().findFile("a.txt").orElseThrow();
+		for (int i = 0; i < 2_000; i++) {
+			big.appendLine("linha repetida " + (i % 10));
+		}
+	}
+
+	@Test
+	void zipStoresCompressedEntriesAndUnzipRestoresThem() {
+		String before = service.executeCommand(session, "tree");
+		long size = session.getRoot().getTotalSize();
+
+		assertEquals("Arquivos compactados em 'pacote.zip'", service.executeCommand(session, "zip -r pacote docs r.txt"));
+		File archive = session.getRoot().findFile("pacote.zip").orElseThrow();
+		assertInstanceOf(ArchiveFile.class, archive);
+		assertEquals("docs/\ndocs/a.txt\ndocs/old/\ndocs/old/b.txt\ndocs/vazio/\nr.txt",
+				service.executeCommand(session, "cat pacote.zip"));
+		// O bloco compactado é bem menor que os originais e entra nos totais pelo próprio tamanho
+		assertTrue(archive.length() * 10 < size);
+		assertEquals(size + archive.length(), session.getRoot().getTotalSize());
+
+		service.executeCommand(session, "rm docs");
+		service.executeCommand(session, "rm r.txt");
+		assertEquals("unzip: 3 files extracted from pacote.zip", service.executeCommand(session, "unzip pacote"));
+		assertEquals(before, service.executeCommand(session, "tree"));
+		assertEquals(size, session.getRoot().getTotalSize());
+		assertEquals("~/docs/old/b.txt", service.executeCommand(session, "find . -name b.txt"));
+	}
+
+	@Test
+	void zipWithoutRecursiveSkipsDirectories() {
+		assertEquals("Erro: Nenhum arquivo válido encontrado.", service.executeCommand(session, "zip p.zip docs"));
+		assertEquals(1, session.getExitStatus());
+		service.executeCommand(session, "zip p.zip docs r.txt");
+		assertEquals("r.txt", service.executeCommand(session, "cat p.zip"));
+		service.executeCommand(session, "echo texto > t.zip");
+		assertEquals("unzip: 't.zip' não é um arquivo compactado", service.executeCommand(session, "unzip t"));
+	}
+
+	@Test
+	void largeEntriesAreCompressedInParallelInOrder() {
+		Directory dir = new Directory("grande", null);
+		List<ArchiveFile.Source> sources = new java.util.ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			File file = new File("f" + i);
+			file.setContent(("bloco " + i + "\n").repeat(40_000));
+			dir.addFile(file);
+			sources.add(new ArchiveFile.Source("grande/f" + i, file));
+		}
+		ArchiveFile archive = ArchiveFile.create("grande.zip", sources);
+		StringBuilder extracted = new StringBuilder();
+		archive.extract(new ArchiveFile.Extractor() {
+			@Override
+			public void directory(String path) {
+			}
+
+			@Override
+			public void file(String path, File file) {
+				assertEquals(dir.findFile(file.getName()).orElseThrow().getContent(), file.getContent());
+				extracted.append(path).append(' ');
+			}
+		});
+		assertEquals("grande/f0 grande/f1 grande/f2 grande/f3 grande/f4 grande/f5 grande/f6 grande/f7 ", extracted.toString());
+	}
+
+	@Test
+	void writingOverAnArchiveReplacesIt() {
+		service.executeCommand(session, "zip p.zip r.txt");
+		service.executeCommand(session, "echo texto > p.zip");
+		File file = session.getRoot().findFile("p.zip").orElseThrow();
+		assertFalse(file instanceof ArchiveFile);
+		assertEquals("texto", file.getContent());
+
+		// Acrescentar a um arquivo compactado é recusado e não o altera
+		service.executeCommand(session, "zip q.zip r.txt");
+		assertEquals("echo: q.zip: arquivo compactado não pode ser alterado", service.executeCommand(session, "echo mais >> q.zip"));
+		assertEquals("grep: q.zip: arquivo compactado não pode ser alterado",
+				service.executeCommand(session, "cat r.txt | grep raiz >> q.zip"));
+		assertInstanceOf(ArchiveFile.class, session.getRoot().findFile("q.zip").orElseThrow());
+
+		// cp de um arquivo compactado continua compactado
+		service.executeCommand(session, "cp q.zip docs");
+		assertInstanceOf(ArchiveFile.class, session.getRoot().findSubdirectory("docs").orElseThrow().findFile("q.zip").orElseThrow());
+	}
+}
@@ -0,0 +1,54 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.service.CommandExecutor;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandExecutorTest {
+
+	private final TerminalService service = TerminalFixtures.newService();
+
+	@Test
+	void virtualModeKeepsCommandsOfEachSessionInOrder() {
+		try (CommandExecutor executor = new CommandExecutor(CommandExecutor.Mode.VIRTUAL)) {
+			TerminalSession first = new TerminalSession("a");
+			TerminalSession second = new TerminalSession("b");
+			List<CompletableFuture<String>> results = new ArrayList<>();
+			for (int i = 0; i < 500; i++) {
+				String command = "echo " + i + " >> log.txt";
+				results.add(executor.submit(first, () -> service.executeCommand(first, command)));
+				results.add(executor.submit(second, () -> service.executeCommand(second, command)));
+			}
+			results.forEach(CompletableFuture::join);
+
+			// O primeiro echo cria o arquivo; os seguintes acrescentam linhas na ordem em que foram enviados
+			String expected = IntStream.range(0, 500).mapToObj(String::valueOf).collect(Collectors.joining("\n"));
+			assertEquals(expected, executor.submit(first, () -> service.executeCommand(first, "cat log.txt")).join());
+			assertEquals(expected, executor.submit(second, () -> service.executeCommand(second, "cat log.txt")).join());
+		}
+	}
+
+	@Test
+	void failuresCompleteTheFuture() {
+		try (CommandExecutor executor = new CommandExecutor(CommandExecutor.Mode.VIRTUAL)) {
+			TerminalSession session = new TerminalSession("c");
+			CompletableFuture<String> failed = executor.submit(session, () -> {
+				throw new IllegalStateException("falhou");
+			});
+			CompletionException error = assertThrows(CompletionException.class, failed::join);
+			assertInstanceOf(IllegalStateException.class, error.getCause());
+			// A fila continua andando depois da falha
+			assertEquals("ok", executor.submit(session, () -> "ok").join());
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.command.CommandLine;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandLineTest {
+
+	@Test
+	void splitsNameAndArguments() {
+		CommandLine line = CommandLine.parse("find  docs -name   notas.txt");
+
+		assertEquals("find", line.name());
+		assertEquals(List.of("docs", "-name", "notas.txt"), line.args());
+		assertFalse(line.isRedirected());
+	}
+
+	@Test
+	void quotesGroupWordsAndProtectRedirection() {
+		CommandLine line = CommandLine.parse("grep \"a > b\" 'meu arquivo.txt'");
+
+		assertEquals(List.of("a > b", "meu arquivo.txt"), line.args());
+		assertFalse(line.isRedirected());
+	}
+
+	@Test
+	void parsesOverwriteAndAppendRedirection() {
+		CommandLine overwrite = CommandLine.parse("echo \"hello world\" > a.txt");
+		assertEquals(List.of("hello world"), overwrite.args());
+		assertEquals("a.txt", overwrite.redirectTarget());
+		assertFalse(overwrite.isAppend());
+
+		CommandLine append = CommandLine.parse("echo mais>>a.txt");
+		assertEquals(List.of("mais"), append.args());
+		assertEquals("a.txt", append.redirectTarget());
+		assertTrue(append.isAppend());
+	}
+
+	@Test
+	void redirectionWithoutTargetIsReported() {
+		CommandLine line = CommandLine.parse("echo oi >");
+
+		assertTrue(line.isRedirected());
+		assertNull(line.redirectTarget());
+	}
+
+	@Test
+	void emptyInputHasNoName() {
+		CommandLine line = CommandLine.parse("   ");
+
+		assertEquals("", line.name());
+		assertEquals("", line.arg(0));
+	}
+}
@@ -0,0 +1,51 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandMetricsTest {
+
+	private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+	private final TerminalService service = TerminalFixtures.newService(meters);
+
+	private double errors(String command) {
+		return meters.get("terminal.command.errors").tag("command", command).counter().count();
+	}
+
+	@Test
+	void recordsLatencyOutputAndFailures() {
+		TerminalSession session = new TerminalSession("metricas");
+		TerminalFixtures.run(service, session, "echo abc > a.txt", "cat a.txt", "cat nada.txt");
+
+		Timer latency = meters.get("terminal.command").tag("command", "cat").timer();
+		assertEquals(2, latency.count());
+		assertTrue(latency.totalTime(TimeUnit.NANOSECONDS) > 0);
+		DistributionSummary output = meters.get("terminal.command.output").tag("command", "cat").summary();
+		assertEquals(2, output.count());
+		assertEquals("abc".length() + "cat: nada.txt: arquivo não encontrado".length(), (long) output.totalAmount());
+		// Só o cat do arquivo inexistente terminou com status diferente de zero
+		assertEquals(1.0, errors("cat"));
+		assertEquals(0.0, errors("echo"));
+	}
+
+	@Test
+	void unknownCommandsAndStreamedFailuresAreCounted() {
+		TerminalSession session = new TerminalSession("metricas");
+		service.executeCommand(session, "xyz");
+		StringBuilder out = new StringBuilder();
+		service.executeCommand(session, "qualquer", out::append);
+		service.executeCommand(session, "cat", out::append);
+
+		assertEquals(2.0, errors("unknown"));
+		assertEquals(1.0, errors("cat"));
+		assertEquals(2, meters.get("terminal.command").tag("command", "unknown").timer().count());
+	}
+}
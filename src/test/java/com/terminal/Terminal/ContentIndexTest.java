@@ -0,0 +1,87 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.model.ContentSource;
+import com.example.Terminal.model.File;
+import com.example.Terminal.model.FileContent;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentIndexTest {
+
+	private final TerminalService service = TerminalFixtures.newService();
+	private TerminalSession session;
+
+	@BeforeEach
+	void createTree() {
+		session = new TerminalSession("grep");
+		TerminalFixtures.run(service, session, "mkdir logs", "mkdir logs/old", "echo 'erro ao abrir' > app.log",
+				"cd logs", "echo 'tudo certo' > web.log", "echo 'outro erro' >> web.log",
+				"cd old", "echo 'erro antigo' > web.log", "cd ~");
+	}
+
+	@Test
+	void searchesWholeSubtreeInTraversalOrder() {
+		assertEquals("./app.log:erro ao abrir\n./logs/web.log:outro erro\n./logs/old/web.log:erro antigo",
+				service.executeCommand(session, "grep -r erro ."));
+		assertEquals("logs/old/web.log:erro antigo", service.executeCommand(session, "grep -r antigo logs/"));
+		// Termos curtos não usam o índice, mas o resultado é o mesmo
+		assertEquals("logs/web.log:tudo certo", service.executeCommand(session, "grep -r tu logs"));
+	}
+
+	@Test
+	void indexFollowsWritesAndRemovals() {
+		service.executeCommand(session, "echo 'sem problemas' > app.log");
+		service.executeCommand(session, "cd logs/old");
+		service.executeCommand(session, "echo 'novo erro grave' >> web.log");
+		service.executeCommand(session, "cd ~");
+		assertEquals("~/logs/old/web.log:novo erro grave", service.executeCommand(session, "grep -r grave ~"));
+		assertEquals("grep: Nenhuma correspondência encontrada para 'abrir'", service.executeCommand(session, "grep -r abrir ."));
+
+		service.executeCommand(session, "rm logs");
+		assertEquals("grep: Nenhuma correspondência encontrada para 'erro'", service.executeCommand(session, "grep -r erro ."));
+		assertEquals(1, session.getContentIndex().size());
+	}
+
+	@Test
+	void rewrittenAndRemovedFilesLeaveNoStaleMatches() {
+		for (int i = 0; i < 2_000; i++) {
+			service.executeCommand(session, "echo 'versão " + i + " sem falhas' > app.log");
+			service.executeCommand(session, "echo 'temporário " + i + "' > tmp" + i + ".txt");
+			service.executeCommand(session, "rm tmp" + i + ".txt");
+		}
+		assertEquals("./app.log:versão 1999 sem falhas", service.executeCommand(session, "grep -r 'sem falhas' ."));
+		assertEquals("grep: Nenhuma correspondência encontrada para 'versão 1998'",
+				service.executeCommand(session, "grep -r 'versão 1998' ."));
+		assertEquals("grep: Nenhuma correspondência encontrada para 'temporário'",
+				service.executeCommand(session, "grep -r temporário ."));
+		assertEquals("./logs/web.log:outro erro\n./logs/old/web.log:erro antigo", service.executeCommand(session, "grep -r erro ."));
+		assertEquals(3, session.getContentIndex().size());
+	}
+
+	@Test
+	void unloadedFileIsIndexedOnFirstRead() {
+		File restored = new File("restaurado.log", new ContentSource() {
+			@Override
+			public long length() {
+				return 12;
+			}
+
+			@Override
+			public FileContent load() {
+				return new FileContent("falha no log");
+			}
+		});
+		session.getRoot().addFile(restored);
+		// Ainda não lido: candidato para qualquer termo
+		assertTrue(session.getContentIndex().candidates(session.getRoot(), "abrir", "~").containsValue(restored));
+
+		assertEquals("./restaurado.log:falha no log", service.executeCommand(session, "grep -r falha ."));
+		assertNull(restored.unloadedContent());
+		assertFalse(session.getContentIndex().candidates(session.getRoot(), "abrir", "~").containsValue(restored));
+		assertTrue(session.getContentIndex().candidates(session.getRoot(), "falha", "~").containsValue(restored));
+	}
+}
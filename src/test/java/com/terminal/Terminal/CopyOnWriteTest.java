@@ -0,0 +1,67 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopyOnWriteTest {
+
+	private final TerminalService service = TerminalFixtures.newService();
+	private TerminalSession session;
+
+	@BeforeEach
+	void createTree() {
+		session = new TerminalSession("cow");
+		TerminalFixtures.run(service, session, "mkdir src", "mkdir src/main", "mkdir backup", "cd src",
+				"echo 'versão 1' > README", "cd main", "echo 'class A' > A.java", "cd ~");
+	}
+
+	private String run(String... commands) {
+		return TerminalFixtures.run(service, session, commands);
+	}
+
+	@Test
+	void copyIsLazyButHasTheSameTotals() {
+		run("cp -r src backup");
+		Directory copy = session.getRoot().findSubdirectory("backup").orElseThrow().findSubdirectory("src").orElseThrow();
+		assertTrue(copy.isLazy());
+		assertEquals(2, copy.getFileCount());
+		assertEquals(1, copy.getDirectoryCount());
+		assertEquals(2 * session.getRoot().findSubdirectory("src").orElseThrow().getTotalSize(),
+				session.getRoot().getTotalSize());
+
+		assertEquals("class A", run("cd backup/src/main", "cat A.java"));
+		assertFalse(copy.isLazy());
+	}
+
+	@Test
+	void writesOnEitherSideAreNotSeenByTheOther() {
+		run("cp -r src backup");
+		// Alterações no original depois da cópia
+		run("cd src", "echo 'versão 2' > README", "cd main", "echo 'class B' >> A.java", "touch B.java", "cd ~");
+		assertEquals("versão 1", run("cd backup/src", "cat README"));
+		assertEquals("class A", run("cd main", "cat A.java"));
+		assertEquals("~/src/main/B.java", run("find . -name B.java"));
+
+		// E na cópia
+		run("cd main", "echo 'class C' >> A.java", "cd ~/src/main");
+		assertEquals("class A\nclass B", run("cat A.java"));
+		assertEquals("~/backup/src/main/A.java:class C", run("cd ~", "grep -r 'class C' ~"));
+	}
+
+	@Test
+	void indexesSeeTheCopiedNodes() {
+		run("cp src backup");
+		assertEquals("~/backup/src/main/A.java\n~/src/main/A.java", run("find . -name A.java"));
+		assertEquals("./backup/src/main/A.java:class A\n./src/main/A.java:class A", run("grep -r class ."));
+	}
+
+	@Test
+	void refusesToCopyIntoItself() {
+		assertTrue(run("cp -r src src/main").startsWith("cp: Não foi possível copiar 'src' para dentro de si mesmo"));
+	}
+}
@@ -0,0 +1,68 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.model.File;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiffTest {
+
+	private final TerminalService service = TerminalFixtures.newService();
+	private TerminalSession session;
+
+	@BeforeEach
+	void createSession() {
+		session = new TerminalSession("diff");
+	}
+
+	private String run(String... commands) {
+		return TerminalFixtures.run(service, session, commands);
+	}
+
+	// Arquivo com várias linhas no diretório atual (o echo não aceita quebras de linha)
+	private void write(String name, String content) {
+		File file = new File(name);
+		file.setContent(content);
+		session.getCurrentDirectory().addFile(file);
+	}
+
+	private String numbered(int from, int to) {
+		StringBuilder text = new StringBuilder();
+		for (int i = from; i <= to; i++) {
+			text.append(i > from ? "\n" : "").append("linha ").append(i);
+		}
+		return text.toString();
+	}
+
+	@Test
+	void insertedLineIsASingleHunk() {
+		write("a.txt", numbered(1, 20));
+		write("b.txt", numbered(1, 10) + "\nnova\n" + numbered(11, 20));
+		assertEquals("--- a.txt\n+++ b.txt\n@@ -8,6 +8,7 @@\n linha 8\n linha 9\n linha 10\n+nova\n linha 11\n linha 12\n linha 13",
+				run("diff a.txt b.txt"));
+	}
+
+	@Test
+	void distantChangesGetSeparateHunks() {
+		write("a.txt", numbered(1, 20));
+		write("b.txt", "um\n" + numbered(2, 19));
+		assertEquals("--- a.txt\n+++ b.txt\n@@ -1,4 +1,4 @@\n-linha 1\n+um\n linha 2\n linha 3\n linha 4\n"
+				+ "@@ -17,4 +17,3 @@\n linha 17\n linha 18\n linha 19\n-linha 20", run("diff a.txt b.txt"));
+		assertEquals("Nenhuma diferença encontrada", run("diff a.txt a.txt"));
+	}
+
+	@Test
+	void recursiveDiffReportsOnlyWhatChanged() {
+		run("mkdir src", "mkdir src/lib", "mkdir copy", "mkdir same", "cd src");
+		write("A.txt", "a\nb\nc");
+		run("cd lib", "echo 'x' > X.txt", "cd ~", "cp -r src copy", "cd copy/src", "echo 'd' >> A.txt", "touch B.txt",
+				"cd lib", "rm X.txt", "cd ..", "rmdir lib", "cd ~");
+		assertEquals("diff -r src/A.txt copy/src/A.txt\n--- src/A.txt\n+++ copy/src/A.txt\n@@ -1,3 +1,4 @@\n a\n b\n c\n+d\n"
+				+ "Somente em copy/src: B.txt\nSomente em src: lib", run("diff -r src copy/src"));
+		assertEquals("Nenhuma diferença encontrada", run("cp -r src same", "diff -r src same/src"));
+		assertEquals("diff: 'src' é um diretório (use diff -r)", run("diff src same"));
+	}
+}
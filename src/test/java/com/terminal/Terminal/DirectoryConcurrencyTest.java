@@ -0,0 +1,122 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.File;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryConcurrencyTest {
+
+	private static final int THREADS = 8;
+	private static final int OPERATIONS = 500;
+
+	// Executa a tarefa em várias threads ao mesmo tempo e propaga qualquer exceção
+	private void runConcurrently(int threads, Callable<Void> task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Void>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return task.call();
+				}));
+			}
+			start.countDown();
+			for (Future<Void> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void concurrentAddsAndRemovesLoseNoUpdates() throws Exception {
+		Directory root = new Directory("~", null);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		ConcurrentLinkedQueue<Throwable> readerErrors = new ConcurrentLinkedQueue<>();
+
+		// Leitores percorrem a árvore enquanto os escritores a alteram
+		Thread reader = new Thread(() -> {
+			try {
+				while (writing.get()) {
+					for (Directory dir : root.getSubdirectories()) {
+						dir.getFiles().forEach(File::getName);
+					}
+					root.getFiles().forEach(File::getContent);
+				}
+			} catch (Throwable e) {
+				readerErrors.add(e);
+			}
+		});
+		reader.start();
+
+		ConcurrentLinkedQueue<Integer> ids = new ConcurrentLinkedQueue<>();
+		for (int i = 0; i < THREADS * OPERATIONS; i++) ids.add(i);
+
+		runConcurrently(THREADS, () -> {
+			Integer id;
+			while ((id = ids.poll()) != null) {
+				Directory dir = new Directory("dir" + id, root);
+				root.addDirectory(dir);
+				dir.addFile(new File("file" + id));
+				root.addFile(new File("tmp" + id));
+				root.removeFile(root.findFile("tmp" + id).orElseThrow());
+			}
+			return null;
+		});
+
+		writing.set(false);
+		reader.join();
+
+		assertTrue(readerErrors.isEmpty(), () -> "Leitura falhou: " + readerErrors.peek());
+		assertEquals(THREADS * OPERATIONS, root.getSubdirectories().size());
+		assertTrue(root.getFiles().isEmpty());
+		for (Directory dir : root.getSubdirectories()) {
+			assertEquals(1, dir.getFiles().size());
+			assertSame(root, dir.getParent());
+		}
+	}
+
+	@Test
+	void concurrentMkdirOfSameNameCreatesOneDirectory() throws Exception {
+		Directory root = new Directory("~", null);
+
+		runConcurrently(THREADS, () -> {
+			for (int i = 0; i < OPERATIONS; i++) {
+				root.addDirectoryIfAbsent(new Directory("shared" + (i % 10), root));
+			}
+			return null;
+		});
+
+		assertEquals(10, root.getSubdirectories().size());
+	}
+
+	@Test
+	void concurrentAppendsOnSameSessionKeepEveryLine() throws Exception {
+		TerminalService service = TerminalFixtures.newService();
+		TerminalSession session = new TerminalSession("stress");
+		service.executeCommand(session, "echo inicio > log.txt");
+
+		runConcurrently(THREADS, () -> {
+			for (int i = 0; i < OPERATIONS; i++) {
+				service.executeCommand(session, "echo linha >> log.txt");
+				service.executeCommand(session, "ls");
+			}
+			return null;
+		});
+
+		File log = session.getRoot().findFile("log.txt").orElseThrow();
+		assertEquals(1 + THREADS * OPERATIONS, log.getContent().lines().count());
+		assertEquals(1, session.getRoot().getFiles().size());
+	}
+}
@@ -0,0 +1,146 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.File;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryTotalsTest {
+
+	private final TerminalService service = TerminalFixtures.newService();
+
+	// Recalcula os totais percorrendo a árvore, para comparar com os mantidos pelos diretórios
+	private static long[] walk(Directory dir) {
+		long[] totals = new long[3];
+		for (File file : dir.getFiles()) {
+			totals[0] += file.length();
+			totals[1]++;
+		}
+		for (Directory subdir : dir.getSubdirectories()) {
+			long[] sub = walk(subdir);
+			totals[0] += sub[0];
+			totals[1] += sub[1];
+			totals[2] += sub[2] + 1;
+		}
+		return totals;
+	}
+
+	private static void assertTotals(Directory dir) {
+		assertArrayEquals(walk(dir), new long[] {dir.getTotalSize(), dir.getFileCount(), dir.getDirectoryCount()},
+				() -> "Totais incorretos em '" + dir.getName() + "'");
+		dir.getSubdirectories().forEach(DirectoryTotalsTest::assertTotals);
+	}
+
+	@Test
+	void commandsKeepTotalsUpToDate() {
+		TerminalSession session = new TerminalSession("totals");
+		Directory root = session.getRoot();
+
+		service.executeCommand(session, "mkdir docs");
+		service.executeCommand(session, "cd docs");
+		service.executeCommand(session, "echo abc > a.txt");
+		service.executeCommand(session, "echo de >> a.txt");
+		service.executeCommand(session, "touch b.txt");
+		service.executeCommand(session, "cd ..");
+		assertEquals(6, root.getTotalSize());
+		assertEquals(2, root.getFileCount());
+		assertEquals(1, root.getDirectoryCount());
+		assertEquals("Tamanho do diretório: 6 bytes", service.executeCommand(session, "du ."));
+
+		service.executeCommand(session, "mkdir backup");
+		service.executeCommand(session, "cp docs backup");
+		service.executeCommand(session, "echo xyz > c.txt");
+		service.executeCommand(session, "zip pacote c.txt");
+		service.executeCommand(session, "mv c.txt docs");
+		service.executeCommand(session, "unzip pacote");
+		assertTotals(root);
+		assertEquals(18, root.getTotalSize());
+
+		service.executeCommand(session, "rm docs");
+		service.executeCommand(session, "rm c.txt");
+		assertTotals(root);
+
+		service.executeCommand(session, "exit");
+		assertEquals(0, root.getTotalSize());
+		assertEquals(0, root.getFileCount());
+		assertEquals(0, root.getDirectoryCount());
+	}
+
+	@Test
+	void moveIntoItselfIsRejected() {
+		TerminalSession session = new TerminalSession("ciclo");
+		Directory root = session.getRoot();
+		TerminalFixtures.run(service, session, "mkdir a", "mkdir a/b", "cd a", "echo abc > x.txt", "cd ~");
+
+		// Antes, a cadeia de pais virava um ciclo e o comando não terminava
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			assertEquals("mv: Não foi possível mover 'a' para dentro de si mesmo", service.executeCommand(session, "mv a a"));
+			assertEquals("mv: Não foi possível mover 'a' para dentro de si mesmo", service.executeCommand(session, "mv a a/b"));
+			assertEquals(1, session.getExitStatus());
+		});
+		assertEquals("a/", service.executeCommand(session, "ls"));
+		assertTotals(root);
+		assertEquals(3, root.getTotalSize());
+
+		Directory a = root.findSubdirectory("a").orElseThrow();
+		Directory b = a.findSubdirectory("b").orElseThrow();
+		assertFalse(root.moveDirectory(a, b));
+		assertThrows(IllegalArgumentException.class, () -> b.addDirectory(a));
+		assertSame(root, a.getParent());
+		assertTotals(root);
+	}
+
+	@Test
+	void concurrentChangesKeepTotalsConsistent() throws Exception {
+		Directory root = new Directory("~", null);
+		Directory left = root.addDirectoryIfAbsent(new Directory("left", root));
+		Directory right = root.addDirectoryIfAbsent(new Directory("right", root));
+		Directory moving = left.addDirectoryIfAbsent(new Directory("moving", left));
+		File log = moving.addFileIfAbsent(new File("log.txt"));
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			// Um lado move o diretório de um lado para o outro enquanto os demais escrevem dentro dele
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < 2_000; i++) {
+					Directory from = i % 2 == 0 ? left : right;
+					Directory to = i % 2 == 0 ? right : left;
+					if (from.removeDirectory(moving)) {
+						to.addDirectory(moving);
+					}
+				}
+			}));
+			for (int t = 0; t < 3; t++) {
+				int id = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 2_000; i++) {
+						log.appendLine("linha");
+						File tmp = moving.addFileIfAbsent(new File("tmp" + id));
+						tmp.setContent("x".repeat(i % 7));
+						moving.removeFile(tmp);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertTotals(root);
+		assertEquals(log.length(), root.getTotalSize());
+	}
+}
@@ -0,0 +1,87 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.model.File;
+import com.example.Terminal.model.FileContent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileContentTest {
+
+	private static String numbered(int from, int to) {
+		return IntStream.rangeClosed(from, to).mapToObj(i -> "linha " + i).collect(Collectors.joining("\n"));
+	}
+
+	// Linhas, tamanho e texto conferidos com o texto equivalente
+	private static void assertContent(String expected, FileContent content) {
+		String[] lines = expected.split("\n", -1);
+		assertEquals(lines.length, content.lineCount());
+		for (int i = 0; i < lines.length; i++) {
+			assertEquals(lines[i], content.line(i));
+		}
+		assertEquals(expected.length(), content.length());
+		assertEquals(expected, content.toString());
+		assertEquals(expected.split("\n").length, content.visibleLineCount());
+	}
+
+	@Test
+	void appendsAcrossChunkBoundaries() {
+		FileContent content = new FileContent("linha 0");
+		// O primeiro bloco cresce de 4 até 1024 linhas; depois vêm blocos novos
+		for (int i = 1; i <= 2_500; i++) {
+			content.appendLine("linha " + i);
+		}
+
+		assertContent(numbered(0, 2_500), content);
+		assertEquals(List.of("linha 1022", "linha 1023", "linha 1024", "linha 1025"), content.lines(1022, 1026).toList());
+		assertThrows(IndexOutOfBoundsException.class, () -> content.line(2_501));
+	}
+
+	@Test
+	void multiLineTextAddsOneLinePerPiece() {
+		FileContent content = new FileContent("a\nb");
+		content.appendLine("c\nd");
+		assertContent("a\nb\nc\nd", content);
+
+		assertContent("", new FileContent(""));
+		assertEquals(1, new FileContent("").visibleLineCount());
+		// Linhas vazias no final contam nas linhas guardadas, mas não nas visíveis
+		FileContent trailing = new FileContent("x\n\n");
+		assertEquals(3, trailing.lineCount());
+		assertEquals(1, trailing.visibleLineCount());
+		assertEquals(0, new FileContent("\n\n").visibleLineCount());
+	}
+
+	@Test
+	void copiesCanBothBeAppendedIndependently() {
+		for (int lines : new int[] {3, 4, 1_024, 1_030}) {
+			File original = new File("a.txt");
+			original.setContent(numbered(1, lines));
+			File copy = original.copy("b.txt");
+			assertSame(original.content(), copy.content());
+
+			original.appendLine("só no original");
+			copy.appendLine("só na cópia\noutra da cópia");
+			copy.appendLine("mais uma");
+
+			assertContent(numbered(1, lines) + "\nsó no original", original.content());
+			assertContent(numbered(1, lines) + "\nsó na cópia\noutra da cópia\nmais uma", copy.content());
+		}
+	}
+
+	@Test
+	void textIsCachedUntilTheNextAppend() {
+		FileContent content = new FileContent(numbered(1, 10));
+		String text = content.toString();
+		assertSame(text, content.toString());
+
+		content.appendLine("nova");
+		String updated = content.toString();
+		assertEquals(text + "\nnova", updated);
+		assertSame(updated, content.toString());
+	}
+}
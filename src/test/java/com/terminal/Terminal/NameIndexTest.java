@@ -0,0 +1,48 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+
+	private final TerminalService service = TerminalFixtures.newService();
+	private TerminalSession session;
+
+	@BeforeEach
+	void createTree() {
+		session = new TerminalSession("find");
+		TerminalFixtures.run(service, session, "mkdir logs", "mkdir logs/old", "mkdir src", "touch app.log",
+				"touch logs/web.log", "touch logs/old/web.log", "touch src/Main.java", "touch src/notes.txt");
+	}
+
+	@Test
+	void findsByGlobInTraversalOrder() {
+		assertEquals("~/app.log\n~/logs/web.log\n~/logs/old/web.log", service.executeCommand(session, "find . -name '*.log'"));
+		assertEquals("logs/web.log\nlogs/old/web.log", service.executeCommand(session, "find logs -name web.log"));
+		assertEquals("~/src/Main.java", service.executeCommand(session, "find ~ -name '[A-Z]*'"));
+	}
+
+	@Test
+	void findsByRegex() {
+		assertEquals("~/logs\n~/src/notes.txt", service.executeCommand(session, "find . -regex '(logs|.*\\.txt)'"));
+		assertTrue(service.executeCommand(session, "find . -regex '(['").startsWith("find: expressão inválida"));
+	}
+
+	@Test
+	void indexFollowsRenameMoveAndRemove() {
+		service.executeCommand(session, "rename app.log app.txt");
+		service.executeCommand(session, "mv logs src");
+		assertEquals("~/app.txt\n~/src/notes.txt", service.executeCommand(session, "find . -name '*.txt'"));
+		assertEquals("~/src/logs/web.log\n~/src/logs/old/web.log", service.executeCommand(session, "find . -name web.log"));
+
+		service.executeCommand(session, "rm src");
+		assertEquals("find: Nenhum arquivo correspondente encontrado", service.executeCommand(session, "find . -name 'web*'"));
+
+		service.executeCommand(session, "exit");
+		assertEquals(0, session.getNameIndex().size());
+	}
+}
@@ -0,0 +1,205 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.model.File;
+import com.example.Terminal.persistence.PersistenceEngine;
+import com.example.Terminal.service.SessionRegistry;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceTest {
+
+	@TempDir
+	Path directory;
+
+	// Serviço, registro e persistência novos sobre a mesma pasta, como em um reinício do servidor
+	private record Instance(TerminalService service, SessionRegistry sessions, PersistenceEngine engine) {
+		TerminalSession session(String id) {
+			return sessions.restore(id);
+		}
+	}
+
+	private Instance start() throws Exception {
+		SessionRegistry sessions = new SessionRegistry(100, 60_000);
+		TerminalService service = TerminalFixtures.newService(sessions);
+		PersistenceEngine engine = new PersistenceEngine(service, sessions, directory.toString(), false);
+		engine.recover();
+		return new Instance(service, sessions, engine);
+	}
+
+	private static void run(Instance instance, TerminalSession session, String... commands) {
+		TerminalFixtures.run(instance.service(), session, commands);
+	}
+
+	private static String state(Instance instance, String id) {
+		TerminalSession session = instance.session(id);
+		session.setCurrentDirectory(session.getRoot());
+		return String.join("\n", List.of(instance.service().executeCommand(session, "tree"),
+				instance.service().executeCommand(session, "ls -l"),
+				instance.service().executeCommand(session, "find . -name '*.txt'"),
+				instance.service().executeCommand(session, "grep -r erro ."),
+				instance.service().executeCommand(session, "cd logs"),
+				instance.service().executeCommand(session, "cat app.log")));
+	}
+
+	@Test
+	void recoversFromLog() throws Exception {
+		Instance first = start();
+		TerminalSession session = first.session("s1");
+		run(first, session, "mkdir logs", "cd logs", "echo 'erro ao abrir' > app.log", "echo 'outro erro' >> app.log",
+				"cd ~", "mkdir src", "touch src/a.txt", "mv src lib", "chmod 755 lib", "ls", "history");
+		String expected = state(first, "s1");
+		first.engine().close();
+
+		Instance second = start();
+		assertEquals(expected, state(second, "s1"));
+		assertEquals(6, second.session("s1").getCommandHistory().size());
+		second.engine().close();
+	}
+
+	@Test
+	void recoversFromSnapshotAndLaterCommands() throws Exception {
+		Instance first = start();
+		TerminalSession session = first.session("s1");
+		run(first, session, "mkdir logs", "cd logs", "echo 'erro antigo' > app.log", "cd ~", "touch notes.txt");
+		first.engine().snapshot();
+		run(first, session, "cd logs", "echo 'erro novo' >> app.log", "cd ~", "rm notes.txt", "touch logs/b.txt");
+		run(first, first.session("s2"), "mkdir outra");
+		String expected = state(first, "s1");
+		first.engine().close();
+
+		Instance second = start();
+		assertEquals(expected, state(second, "s1"));
+		assertEquals("outra/", second.service().executeCommand(second.session("s2"), "ls"));
+		// Um novo snapshot substitui o anterior e o log já aplicado
+		second.engine().snapshot();
+		second.engine().close();
+		try (var files = Files.list(directory)) {
+			assertEquals(1, files.filter(file -> file.getFileName().toString().startsWith("snapshot-")).count());
+		}
+
+		Instance third = start();
+		assertEquals(expected, state(third, "s1"));
+		third.engine().close();
+	}
+
+	@Test
+	void recoversNamedSnapshots() throws Exception {
+		Instance first = start();
+		TerminalSession session = first.session("s1");
+		run(first, session, "mkdir logs", "cd logs", "echo 'erro antigo' > app.log", "cd ~", "snapshot base", "rm logs");
+		first.engine().snapshot();
+		run(first, session, "snapshot vazio", "restore base");
+		String expected = state(first, "s1");
+		first.engine().close();
+
+		Instance second = start();
+		TerminalSession restored = second.session("s1");
+		assertEquals(expected, state(second, "s1"));
+		assertEquals("D ~/logs/", second.service().executeCommand(restored, "snapshot diff base vazio"));
+		second.engine().close();
+	}
+
+		@Test
+	void loadsSnapshotContentOnlyWhenRead() throws Exception {
+		Instance first = start();
+		TerminalSession session = first.session("s1");
+		run(first, session, "mkdir logs", "cd logs", "echo 'erro ação' > app.log", "echo 'segunda linha' >> app.log",
+				"echo 'nada aqui' > b.log", "cd ~", "touch vazio.txt", "zip -r logs.zip logs");
+		first.engine().snapshot();
+		first.engine().close();
+
+		Instance second = start();
+		TerminalSession restored = second.session("s1");
+		File app = restored.getRoot().findSubdirectory("logs").orElseThrow().findFile("app.log").orElseThrow();
+		File empty = restored.getRoot().findFile("vazio.txt").orElseThrow();
+		assertNotNull(app.unloadedContent());
+		assertEquals(23, app.length());
+		assertEquals(session.getRoot().getTotalSize(), restored.getRoot().getTotalSize());
+
+		// O grep -r lê os arquivos ainda não indexados
+		assertEquals("logs/app.log:erro ação", second.service().executeCommand(restored, "grep -r ação logs"));
+		assertNull(app.unloadedContent());
+		assertEquals("erro ação\nsegunda linha", app.getContent());
+		assertNotNull(empty.unloadedContent());
+
+		// Um novo snapshot copia o conteúdo ainda mapeado sem carregá-lo
+		run(second, restored, "cd logs", "echo 'outro' >> app.log", "cd ~");
+		second.engine().snapshot();
+		assertNotNull(empty.unloadedContent());
+		// O snapshot anterior fica enquanto houver arquivo lendo do mapeamento dele
+		try (var files = Files.list(directory)) {
+			assertEquals(2, files.filter(file -> file.getFileName().toString().startsWith("snapshot-")).count());
+		}
+		second.engine().close();
+
+		Instance third = start();
+		TerminalSession last = third.session("s1");
+		assertEquals("", third.service().executeCommand(last, "cat vazio.txt"));
+		// O arquivo compactado volta como está (o logs/app.log dele é o de antes do acréscimo)
+		third.service().executeCommand(last, "mkdir extraido");
+		third.service().executeCommand(last, "mv logs.zip extraido");
+		third.service().executeCommand(last, "cd extraido");
+		assertEquals("unzip: 2 files extracted from logs.zip", third.service().executeCommand(last, "unzip logs.zip"));
+		third.service().executeCommand(last, "cd logs");
+		assertEquals("erro ação\nsegunda linha", third.service().executeCommand(last, "cat app.log"));
+		third.service().executeCommand(last, "cd ~");
+		third.service().executeCommand(last, "cd logs");
+		assertEquals("nada aqui", third.service().executeCommand(last, "cat b.log"));
+		assertEquals("erro ação\nsegunda linha\noutro", third.service().executeCommand(last, "cat app.log"));
+		third.engine().close();
+	}
+
+	@Test
+	void writesSharedContentOnce() throws Exception {
+		Instance first = start();
+		String text = "x".repeat(100_000);
+		run(first, first.session("s1"), "echo '" + text + "' > a.txt", "cp a.txt b.txt");
+		run(first, first.session("s2"), "echo '" + text + "' > c.txt");
+		first.engine().snapshot();
+		first.engine().close();
+		try (var files = Files.list(directory)) {
+			long size = files.filter(path -> path.getFileName().toString().startsWith("snapshot-")).findFirst().orElseThrow().toFile().length();
+			assertTrue(size < 2 * text.length(), "snapshot com " + size + " bytes");
+		}
+
+		Instance second = start();
+		File a = second.session("s1").getRoot().findFile("a.txt").orElseThrow();
+		File c = second.session("s2").getRoot().findFile("c.txt").orElseThrow();
+		assertEquals(text, a.getContent());
+		assertSame(a.content(), c.content());
+		second.engine().close();
+	}
+
+	@Test
+	void ignoresTornRecordAtTheEnd() throws Exception {
+		Instance first = start();
+		run(first, first.session("s1"), "mkdir logs", "cd logs", "echo 'erro' > app.log");
+		String expected = state(first, "s1");
+		first.engine().close();
+
+		// Queda no meio da gravação: cabeçalho de um registro sem o conteúdo
+		Path segment;
+		try (var files = Files.list(directory)) {
+			segment = files.filter(file -> file.getFileName().toString().startsWith("wal-")).sorted().findFirst().orElseThrow();
+		}
+		Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 0, 0}, StandardOpenOption.APPEND);
+
+		Instance second = start();
+		assertEquals(expected, state(second, "s1"));
+		run(second, second.session("s1"), "cd ~", "touch logs/c.txt");
+		second.engine().close();
+
+		Instance third = start();
+		assertEquals("~/logs/c.txt", third.service().executeCommand(third.session("s1"), "find . -name c.txt"));
+		third.engine().close();
+	}
+}
@@ -0,0 +1,66 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.command.CommandRegistry;
+import com.example.Terminal.model.File;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineTest {
+
+	private final CommandRegistry registry = new CommandRegistry();
+	private final TerminalService service = TerminalFixtures.newService(registry);
+	private TerminalSession session;
+
+	@BeforeEach
+	void createFiles() {
+		session = new TerminalSession("pipe");
+		TerminalFixtures.run(service, session, "echo 'INFO inicio' > app.log", "echo 'ERROR disco cheio' >> app.log",
+				"echo 'INFO meio' >> app.log", "echo 'ERROR rede' >> app.log");
+	}
+
+	@Test
+	void passesLinesBetweenCommands() {
+		assertEquals("ERROR disco cheio\nERROR rede", service.executeCommand(session, "cat app.log | grep ERROR"));
+		assertEquals("ERROR disco cheio", service.executeCommand(session, "cat app.log | grep ERROR | head 1"));
+		assertEquals("INFO meio\nERROR rede", service.executeCommand(session, "cat app.log | tail 2"));
+		assertEquals("2 5 28", service.executeCommand(session, "grep ERROR app.log | wc"));
+		assertEquals("1 3 5", service.executeCommand(session, "echo 'a | b' | wc"));
+
+		assertEquals("", service.executeCommand(session, "cat app.log | grep ERROR > erros.txt"));
+		assertEquals("ERROR disco cheio\nERROR rede", service.executeCommand(session, "cat erros.txt"));
+	}
+
+	@Test
+	void reportsErrorsAndStatus() {
+		assertEquals("", service.executeCommand(session, "cat app.log | grep nada"));
+		assertEquals(1, session.getExitStatus());
+		assertEquals("cat: nada.log: arquivo não encontrado", service.executeCommand(session, "cat nada.log | grep x"));
+		assertEquals("zsh: command not found: xyz", service.executeCommand(session, "cat app.log | xyz"));
+		assertEquals(127, session.getExitStatus());
+		assertEquals("zsh: parse error near `|'", service.executeCommand(session, "cat app.log |"));
+	}
+
+	@Test
+	void headStopsReadingUpstream() {
+		StringBuilder content = new StringBuilder("linha 0");
+		for (int i = 1; i < 100_000; i++) {
+			content.append("\nlinha ").append(i);
+		}
+		File big = new File("big.log");
+		big.setContent(content.toString());
+		session.getRoot().addFile(big);
+
+		// Estágio de teste que conta quantas linhas passaram por ele
+		AtomicInteger pulled = new AtomicInteger();
+		registry.registerStage("count", (s, line, input) -> input.peek(text -> pulled.incrementAndGet()));
+
+		assertEquals("linha 0\nlinha 1\nlinha 2", service.executeCommand(session, "cat big.log | count | head 3"));
+		assertEquals(3, pulled.get());
+	}
+}
@@ -0,0 +1,38 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.command.Script;
+import com.example.Terminal.service.CommandResult;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptTest {
+
+	private final TerminalService service = TerminalFixtures.newService();
+
+	@Test
+	void splitsOnSeparatorsOutsideQuotes() {
+		assertEquals(List.of(new Script.Step("mkdir a", false), new Script.Step("cd a", true),
+						new Script.Step("echo 'x; y && z' > f.txt", false), new Script.Step("pwd", false)),
+				Script.parse("mkdir a && cd a; echo 'x; y && z' > f.txt;;\n pwd ;"));
+		assertEquals(List.of(new Script.Step("a", false), new Script.Step("b", true)), Script.parse("a && ; b"));
+	}
+
+	@Test
+	void skipsCommandsAfterFailedAnd() {
+		TerminalSession session = new TerminalSession("batch");
+		List<CommandResult> results = service.executeScript(session,
+				List.of("mkdir src && cd src && touch App.java", "cd nada && touch perdido.txt && pwd; ls", "xyz"));
+
+		assertEquals(List.of(0, 0, 0, 1, 1, 1, 0, 127), results.stream().map(CommandResult::status).toList());
+		assertEquals(List.of(false, false, false, false, true, true, false, false),
+				results.stream().map(CommandResult::skipped).toList());
+		assertEquals("App.java", results.get(6).output());
+		assertEquals("zsh: command not found: xyz", results.get(7).output());
+		assertEquals(2, service.executeScript(session, List.of("cat")).get(0).status());
+	}
+}
@@ -0,0 +1,87 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.service.SessionLimitExceededException;
+import com.example.Terminal.service.SessionRegistry;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionRegistryTest {
+
+	@Test
+	void tokensSeeOnlyTheirOwnSession() {
+		SessionRegistry sessions = new SessionRegistry(10, 60_000);
+		TerminalService service = TerminalFixtures.newService(sessions);
+		TerminalSession first = sessions.getOrCreate(null);
+		TerminalSession second = sessions.getOrCreate(null);
+
+		assertNotEquals(first.getId(), second.getId());
+		assertSame(first, sessions.getOrCreate(first.getId()));
+		// Token desconhecido não dá acesso a nenhuma sessão existente
+		assertNotSame(first, sessions.getOrCreate("inventado"));
+
+		TerminalFixtures.run(service, first, "mkdir segredo", "echo 'só da primeira' > nota.txt");
+		assertEquals("", TerminalFixtures.run(service, second, "ls"));
+		assertEquals("cat: nota.txt: arquivo não encontrado", TerminalFixtures.run(service, second, "cat nota.txt"));
+		assertEquals("só da primeira", TerminalFixtures.run(service, sessions.getOrCreate(first.getId()), "cat nota.txt"));
+	}
+
+	@Test
+	void idleSessionsAreEvictedAndFreeTheirSlot() throws Exception {
+		SessionRegistry sessions = new SessionRegistry(1, 20);
+		TerminalSession idle = sessions.getOrCreate(null);
+		Thread.sleep(50);
+
+		sessions.evictIdleSessions();
+		assertEquals(0, sessions.size());
+		assertNotSame(idle, sessions.getOrCreate(idle.getId()));
+		assertEquals(1, sessions.size());
+	}
+
+	@Test
+	void concurrentCreationStopsAtTheCapWith503() throws Exception {
+		int max = 5;
+		int threads = 32;
+		SessionRegistry sessions = new SessionRegistry(max, 60_000);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<TerminalSession>> results = new ArrayList<>();
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			for (int t = 0; t < threads; t++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return sessions.getOrCreate(null);
+				}));
+			}
+			start.countDown();
+
+			int created = 0;
+			int refused = 0;
+			for (Future<TerminalSession> result : results) {
+				try {
+					result.get(30, TimeUnit.SECONDS);
+					created++;
+				} catch (ExecutionException e) {
+					assertInstanceOf(SessionLimitExceededException.class, e.getCause());
+					refused++;
+				}
+			}
+			assertEquals(max, created);
+			assertEquals(threads - max, refused);
+			assertEquals(max, sessions.size());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+				SessionLimitExceededException.class.getAnnotation(ResponseStatus.class).value());
+	}
+}
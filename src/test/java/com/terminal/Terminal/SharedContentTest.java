@@ -0,0 +1,46 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.model.File;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedContentTest {
+
+	private final TerminalService service = TerminalFixtures.newService();
+
+	private TerminalSession session(String id, String... commands) {
+		TerminalSession session = new TerminalSession(id);
+		TerminalFixtures.run(service, session, commands);
+		return session;
+	}
+
+	private static File file(TerminalSession session, String name) {
+		return session.getCurrentDirectory().findFile(name).orElseThrow();
+	}
+
+	@Test
+	void identicalFilesShareContentAndNamesAcrossSessions() {
+		TerminalSession first = session("a", "mkdir docs", "cd docs", "echo 'mesmo texto' > README");
+		TerminalSession second = session("b", "mkdir docs", "cd docs", "echo 'mesmo' > README", "echo 'mesmo texto' > README");
+
+		assertSame(file(first, "README").content(), file(second, "README").content());
+		assertSame(file(first, "README").getName(), file(second, "README").getName());
+		assertSame(first.getCurrentDirectory().getName(), second.getCurrentDirectory().getName());
+	}
+
+	@Test
+	void appendDoesNotChangeTheSharedContent() {
+		TerminalSession first = session("a", "echo 'linha' > a.txt");
+		TerminalSession second = session("b", "echo 'linha' > a.txt", "echo 'outra' >> a.txt");
+
+		assertEquals("linha", service.executeCommand(first, "cat a.txt"));
+		assertEquals("linha\noutra", service.executeCommand(second, "cat a.txt"));
+		assertNotSame(file(first, "a.txt").content(), file(second, "a.txt").content());
+		// Reescrever com o mesmo texto volta a compartilhar
+		service.executeCommand(second, "echo 'linha' > a.txt");
+		assertSame(file(first, "a.txt").content(), file(second, "a.txt").content());
+	}
+}
@@ -0,0 +1,40 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingOutputTest {
+
+	private final TerminalService service = TerminalFixtures.newService();
+
+	@Test
+	void streamedOutputMatchesTextOutput() {
+		TerminalSession session = new TerminalSession("stream");
+		TerminalFixtures.run(service, session, "mkdir src", "mkdir src/main", "touch src/main/App.java", "touch notes.txt",
+				"echo 'primeira linha' > log.txt", "echo 'segunda' >> log.txt", "echo \"aspas\" >> log.txt");
+
+		for (String command : new String[] {"tree", "cat log.txt", "cat nada.txt", "cat", "history", "echo oi", "xyz"}) {
+			List<String> parts = new ArrayList<>();
+			service.executeCommand(session, command, text -> parts.add(text.toString()));
+			// A versão texto entra no histórico depois, então é executada em seguida com o mesmo estado
+			String expected = service.executeCommand(session, command);
+			assertEquals(command.equals("history") ? expected.substring(0, expected.lastIndexOf('\n')) : expected,
+					String.join("", parts), command);
+		}
+	}
+
+	@Test
+	void redirectedStreamWritesOnlyToFile() {
+		TerminalSession session = new TerminalSession("redirect");
+		StringBuilder out = new StringBuilder();
+		service.executeCommand(session, "echo oi > a.txt", out::append);
+		assertEquals("", out.toString());
+		assertEquals("oi", service.executeCommand(session, "cat a.txt"));
+	}
+}
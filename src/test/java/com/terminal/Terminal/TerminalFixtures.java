@@ -0,0 +1,46 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.command.CommandRegistry;
+import com.example.Terminal.service.CommandMetrics;
+import com.example.Terminal.service.SessionRegistry;
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Serviço de terminal montado à mão (sem Spring) e execução de comandos em sequência, usados pelos testes
+final class TerminalFixtures {
+
+	private TerminalFixtures() {
+	}
+
+	static TerminalService newService() {
+		return newService(new SessionRegistry(100, 60_000), new CommandRegistry());
+	}
+
+	static TerminalService newService(CommandRegistry commands) {
+		return newService(new SessionRegistry(100, 60_000), commands);
+	}
+
+	static TerminalService newService(SessionRegistry sessions) {
+		return newService(sessions, new CommandRegistry());
+	}
+
+	// Métricas gravadas em "meters", para os testes que conferem os medidores
+	static TerminalService newService(MeterRegistry meters) {
+		return new TerminalService(new CommandMetrics(meters, new SessionRegistry(100, 60_000)), new CommandRegistry());
+	}
+
+	private static TerminalService newService(SessionRegistry sessions, CommandRegistry commands) {
+		return new TerminalService(new CommandMetrics(new SimpleMeterRegistry(), sessions), commands);
+	}
+
+	// Executa os comandos na ordem e devolve a saída do último
+	static String run(TerminalService service, TerminalSession session, String... commands) {
+		String output = null;
+		for (String command : commands) {
+			output = service.executeCommand(session, command);
+		}
+		return output;
+	}
+}
@@ -0,0 +1,54 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.util.TextUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextUtilsTest {
+
+	// Casos com aspas nas pontas, quebras de linha no final e textos vazios ou só de aspas
+	private static final List<String> SAMPLES = List.of("", "\"", "\"\"", "\"\"\"", "a", "\"a\"", "\"a", "a\"",
+			"b\"\r", "b\"\n", "b\"\r\n", "b\"\n\n", "b\" ", "b\"\u0085", "\"b\"\n", "\"\n", "\"\r\n", "\n\"",
+			"\"a b\"\n\"c\"", "a\n\nb\n\n", "\n\n", "x\"\ry", " \t um  dois\r\ntrês\"\"\n", "\"linha\"\r");
+
+	@Test
+	void quotesAreStrippedLikeTheRegexes() {
+		for (String text : SAMPLES) {
+			assertEquals(text.replaceAll("^\"|\"$", ""), TextUtils.stripQuotes(text), text);
+			assertEquals(text.replaceAll("\"$", ""), TextUtils.stripTrailingQuote(text), text);
+			assertEquals(text.replaceAll("\"", "").length(), TextUtils.lengthWithout(text, '"'), text);
+		}
+	}
+
+	@Test
+	void linesAreSplitLikeSplit() {
+		for (String text : SAMPLES) {
+			List<String> expected = Arrays.asList(text.split("\n"));
+			assertEquals(expected, TextUtils.splitLines(text), text);
+			for (int limit = 0; limit <= 3; limit++) {
+				assertEquals(expected.subList(0, Math.min(limit, expected.size())), TextUtils.splitLines(text, limit), text);
+			}
+		}
+	}
+
+	@Test
+	void countsLikeTheOldWc() {
+		for (String text : SAMPLES) {
+			String content = text.replaceAll("\"", "");
+			long words = Arrays.stream(content.split("\\s+")).filter(w -> !w.isEmpty()).count();
+			TextUtils.Counts expected = new TextUtils.Counts(content.lines().count(), words, content.length());
+			assertEquals(expected, TextUtils.count(text), text);
+
+			// Em pedaços, como as linhas que chegam por um pipe
+			TextUtils.Counter counter = new TextUtils.Counter();
+			for (int i = 0; i < text.length(); i += 2) {
+				counter.add(text.substring(i, Math.min(i + 2, text.length())));
+			}
+			assertEquals(expected, counter.counts(), text);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.service.TerminalService;
+import com.example.Terminal.service.TerminalSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeSnapshotTest {
+
+	private final TerminalService service = TerminalFixtures.newService();
+	private TerminalSession session;
+
+	@BeforeEach
+	void createTree() {
+		session = new TerminalSession("snapshots");
+		run("mkdir logs", "mkdir src", "cd logs", "echo 'erro antigo' > app.log", "cd ~", "touch src/Main.java",
+				"snapshot base");
+	}
+
+	private String run(String... commands) {
+		return TerminalFixtures.run(service, session, commands);
+	}
+
+	@Test
+	void restoreBringsBackTheSavedTree() {
+		String saved = run("tree");
+		run("cd logs", "echo 'erro novo' >> app.log", "touch web.log", "cd ~", "rm src", "mkdir tmp");
+		assertNotEquals(saved, run("tree"));
+
+		run("cd logs", "restore base");
+		assertEquals(session.getRoot(), session.getCurrentDirectory());
+		assertEquals(saved, run("tree"));
+		assertEquals("erro antigo", run("cd logs", "cat app.log"));
+		assertEquals(2, session.getRoot().getFileCount());
+
+		// O snapshot continua o mesmo depois de restaurado e alterado de novo
+		run("echo 'outra vez' >> app.log", "restore base");
+		assertEquals("erro antigo", run("cd logs", "cat app.log"));
+	}
+
+	@Test
+	void indexesFollowTheRestoredTree() {
+		run("touch novo.log", "rm logs");
+		assertEquals("~/novo.log", run("find . -name '*.log'"));
+
+		run("restore base");
+		assertEquals("~/logs/app.log", run("find . -name '*.log'"));
+		assertEquals("./logs/app.log:erro antigo", run("grep -r erro ."));
+	}
+
+	@Test
+	void diffListsOnlyWhatChanged() {
+		run("cd logs", "echo 'erro novo' >> app.log", "touch web.log", "cd ~", "rm src", "mkdir tmp", "snapshot depois");
+		assertEquals("M ~/logs/app.log\nA ~/logs/web.log\nD ~/src/\nA ~/tmp/", run("snapshot diff base depois"));
+		assertEquals("snapshot: nenhuma diferença", run("snapshot diff depois"));
+		assertEquals("base\ndepois", run("snapshot"));
+		assertTrue(run("restore outro").startsWith("restore: snapshot não encontrado"));
+		assertEquals(1, session.getExitStatus());
+	}
+
+	@Test
+	void exitDiscardsTreeAndSnapshots() {
+		run("exit");
+		assertEquals(0, session.getRoot().getFileCount());
+		assertEquals(0, session.getNameIndex().size());
+		assertEquals("snapshot: nenhum snapshot salvo", run("snapshot"));
+	}
+}
@@ -0,0 +1,69 @@
+package com.terminal.Terminal;
+
+import com.example.Terminal.model.Directory;
+import com.example.Terminal.model.File;
+import com.example.Terminal.model.TreeWalker;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeWalkerTest {
+
+	// Nomes dos diretórios em pré-ordem, com a profundidade, usando um StringBuilder por pedaço
+	private static final TreeWalker.Visitor<Void, StringBuilder> PRE_ORDER = new TreeWalker.Visitor<>() {
+		@Override
+		public StringBuilder newChunk() {
+			return new StringBuilder();
+		}
+
+		@Override
+		public Void copy(Void state) {
+			return null;
+		}
+
+		@Override
+		public void enter(Directory dir, int depth, boolean last, Void state, StringBuilder out) {
+			out.append(depth).append(':').append(dir.getName()).append(last ? "$" : "").append('\n');
+		}
+
+		@Override
+		public void exit(Directory dir, int depth, boolean last, Void state, StringBuilder out) {
+			dir.getFiles().forEach(file -> out.append(file.getName()).append('\n'));
+		}
+	};
+
+	private static void sequential(Directory dir, int depth, boolean last, StringBuilder out) {
+		out.append(depth).append(':').append(dir.getName()).append(last ? "$" : "").append('\n');
+		List<Directory> subdirs = new ArrayList<>(dir.getSubdirectories());
+		for (int i = 0; i < subdirs.size(); i++) {
+			sequential(subdirs.get(i), depth + 1, i == subdirs.size() - 1, out);
+		}
+		dir.getFiles().forEach(file -> out.append(file.getName()).append('\n'));
+	}
+
+	@Test
+	void parallelWalkKeepsTraversalOrder() {
+		// Árvore grande o suficiente para ser dividida entre várias tarefas
+		Directory root = new Directory("~", null);
+		for (int i = 0; i < 8; i++) {
+			Directory branch = root.addDirectoryIfAbsent(new Directory("b" + i, root));
+			for (int j = 0; j < 40; j++) {
+				Directory leaf = branch.addDirectoryIfAbsent(new Directory("l" + j, branch));
+				for (int k = 0; k < 120; k++) {
+					leaf.addFile(new File("f" + k));
+				}
+			}
+			branch.addFile(new File("readme"));
+		}
+
+		StringBuilder expected = new StringBuilder();
+		sequential(root, 0, true, expected);
+
+		List<StringBuilder> chunks = TreeWalker.walk(root, null, PRE_ORDER);
+		assertTrue(chunks.size() > 1);
+		assertEquals(expected.toString(), String.join("", chunks));
+	}
+}